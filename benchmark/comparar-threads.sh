@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+#
+# Compara o modelo de threads de plataforma (padrão do Tomcat, 200 threads) com o
+# modo de threads virtuais nos mesmos endpoints.
+#
+# Requisitos: JDK 21, Maven e a ferramenta de carga "hey" (https://github.com/rakyll/hey).
+#
+# Uso:
+#   benchmark/comparar-threads.sh                # usa a configuração padrão do application.yml
+#   ARGS_APP="--spring.profiles.active=local" benchmark/comparar-threads.sh
+#
+# Variáveis:
+#   CONCORRENCIA  clientes simultâneos (padrão 400, acima das 200 threads do Tomcat)
+#   DURACAO       duração de cada rodada (padrão 30s)
+#   PORTA         porta da aplicação (padrão 8080)
+#   ARGS_APP      argumentos extras para a aplicação
+
+set -euo pipefail
+
+CONCORRENCIA="${CONCORRENCIA:-400}"
+DURACAO="${DURACAO:-30s}"
+PORTA="${PORTA:-8080}"
+ARGS_APP="${ARGS_APP:-}"
+BASE="http://localhost:${PORTA}/conectahc"
+RAIZ="$(cd "$(dirname "$0")/.." && pwd)"
+
+ENDPOINTS=(
+    "/api/v1/consultas?limit=50"
+    "/api/v1/pacientes?limit=50"
+    "/api/v1/consultas/relatorio"
+    "/api/v1/consultas/periodo?dataInicio=2025-01-01&dataFim=2025-12-31"
+)
+
+command -v hey >/dev/null || { echo "Ferramenta 'hey' não encontrada no PATH"; exit 1; }
+
+echo "Compilando com o perfil java21..."
+(cd "$RAIZ" && mvn -B -q -Pjava21 -DskipTests package)
+JAR="$(ls "$RAIZ"/target/conectahc-*-exec.jar | head -n 1)"
+
+executar_rodada() {
+    local modo="$1" virtuais="$2"
+
+    echo
+    echo "=== Modo: ${modo} ==="
+    # shellcheck disable=SC2086
+    java -jar "$JAR" --server.port="$PORTA" \
+        --conectahc.threads-virtuais.habilitadas="$virtuais" \
+        --logging.level.root=WARN --logging.level.org.springframework.web=WARN $ARGS_APP \
+        > "$RAIZ/target/benchmark-${modo}.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+
+    until curl -sf "${BASE}/actuator/health" >/dev/null; do
+        kill -0 "$pid" 2>/dev/null || { echo "Aplicação não iniciou; veja target/benchmark-${modo}.log"; exit 1; }
+        sleep 1
+    done
+
+    for endpoint in "${ENDPOINTS[@]}"; do
+        echo "--- ${endpoint}"
+        hey -z "$DURACAO" -c "$CONCORRENCIA" "${BASE}${endpoint}" \
+            | grep -E "Requests/sec|Average|Slowest|99%|Status code|\[[0-9]{3}\]"
+    done
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+executar_rodada "plataforma" false
+executar_rodada "virtuais" true
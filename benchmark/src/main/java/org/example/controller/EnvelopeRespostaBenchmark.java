@@ -0,0 +1,69 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.example.model.Consulta;
+import org.example.model.StatusConsulta;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar o envelope padrão de resposta e serializá-lo em JSON,
+ * para uma página de 1 e de 50 consultas, como em GET /api/v1/consultas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvelopeRespostaBenchmark {
+
+    @Param({"1", "50"})
+    private int tamanhoPagina;
+
+    private ConsultaController controller;
+    private ObjectWriter escritor;
+    private ConsultaController.PaginaConsultas pagina;
+
+    @Setup
+    public void preparar() {
+        controller = new ConsultaController();
+
+        // Mesma configuração da aplicação: datas ISO, Blackbird, sem nulos e writer pré-montado
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        escritor = objectMapper.writerFor(RespostaApi.class);
+
+        List<Consulta> consultas = new ArrayList<>();
+        LocalDate base = LocalDate.of(2025, 3, 1);
+        for (int i = 0; i < tamanhoPagina; i++) {
+            consultas.add(new Consulta(i + 1, 42, base.plusDays(i), StatusConsulta.AGENDADA,
+                    "Retorno", "Trazer exames anteriores"));
+        }
+        pagina = new ConsultaController.PaginaConsultas(consultas.size(), consultas, tamanhoPagina, null);
+    }
+
+    @Benchmark
+    public RespostaApi<?> montarEnvelope() {
+        return controller.construirRespostaSucesso("Consultas listadas com sucesso", pagina, 200);
+    }
+
+    @Benchmark
+    public byte[] montarESerializar() throws Exception {
+        RespostaApi<?> resposta =
+                controller.construirRespostaSucesso("Consultas listadas com sucesso", pagina, 200);
+        return escritor.writeValueAsBytes(resposta);
+    }
+}
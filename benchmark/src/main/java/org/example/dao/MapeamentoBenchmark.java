@@ -0,0 +1,68 @@
+package org.example.dao;
+
+import org.example.model.Consulta;
+import org.example.model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de converter uma linha do banco em objeto de modelo, por linha lida.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoBenchmark {
+
+    private ConsultaDAO consultaDAO;
+    private PacienteDAO pacienteDAO;
+    private ResultSet linhaConsulta;
+    private ResultSet linhaPaciente;
+
+    @Setup
+    public void preparar() {
+        // Os DAOs só usam a conexão nos métodos de acesso ao banco
+        consultaDAO = new ConsultaDAO(null);
+        pacienteDAO = new PacienteDAO(null);
+
+        Map<String, Object> consulta = new HashMap<>();
+        consulta.put("id", 1234);
+        consulta.put("paciente_id", 42);
+        consulta.put("data_consulta", LocalDate.of(2025, 3, 14));
+        consulta.put("status", "agendada");
+        consulta.put("motivo", "Retorno");
+        consulta.put("observacoes", "Trazer exames anteriores");
+        linhaConsulta = ResultSetFalso.linha(consulta);
+
+        Map<String, Object> paciente = new HashMap<>();
+        paciente.put("ID_PACIENTE", "42");
+        paciente.put("NOME", "Maria da Silva");
+        paciente.put("CPF", "12345678901");
+        paciente.put("DATA_NASCIMENTO", LocalDate.of(1980, 5, 20));
+        paciente.put("TP_SANGUINEO", "O+");
+        paciente.put("ALTURA", "1.65");
+        paciente.put("PESO", "62");
+        paciente.put("RG", "123456789");
+        paciente.put("IDADE", 44);
+        paciente.put("ESCOLARIDADE", "Superior completo");
+        linhaPaciente = ResultSetFalso.linha(paciente);
+    }
+
+    @Benchmark
+    public Consulta mapearConsulta() throws SQLException {
+        return consultaDAO.mapearResultSetParaConsulta(linhaConsulta);
+    }
+
+    @Benchmark
+    public Paciente mapearPaciente() throws SQLException {
+        return pacienteDAO.mapearResultSetParaPaciente(linhaPaciente);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.dao;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.Map;
+
+/**
+ * ResultSet em memória com uma única linha, para medir o mapeamento dos DAOs sem banco.
+ * Só responde aos getters por nome de coluna usados pelos métodos de mapeamento.
+ */
+final class ResultSetFalso {
+
+    private ResultSetFalso() {
+    }
+
+    static ResultSet linha(Map<String, Object> colunas) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, metodo, args) -> {
+                    Object valor = args != null && args.length > 0 && args[0] instanceof String coluna
+                            ? colunas.get(coluna) : null;
+                    switch (metodo.getName()) {
+                        case "getString":
+                            return valor != null ? valor.toString() : null;
+                        case "getInt":
+                            return valor != null ? ((Number) valor).intValue() : 0;
+                        case "getLong":
+                            return valor != null ? ((Number) valor).longValue() : 0L;
+                        case "getObject":
+                            return valor;
+                        case "wasNull":
+                            return false;
+                        default:
+                            throw new UnsupportedOperationException(metodo.getName());
+                    }
+                });
+    }
+}
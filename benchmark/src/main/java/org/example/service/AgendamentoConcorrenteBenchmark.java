@@ -0,0 +1,129 @@
+package org.example.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.ConexaoBD;
+import org.example.dao.ConsultaDAO;
+import org.example.dao.PacienteDAO;
+import org.example.model.Consulta;
+import org.example.model.StatusConsulta;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agendamentos concorrentes disputando os mesmos pacientes e dias, passando pelo
+ * SistemaClinicaService real (locks por paciente/dia + restrição UK_CONSULTA_ATIVA)
+ * sobre o H2 em memória com o esquema do perfil local.
+ *
+ * Cada operação tenta agendar para um paciente e dia sorteados; se conseguir, cancela em
+ * seguida para liberar a vaga. Com poucos pacientes quase toda tentativa cai no mesmo lock,
+ * com muitos a disputa some. Os contadores agendadas/conflitos mostram quantas tentativas
+ * foram barradas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AgendamentoConcorrenteBenchmark {
+
+    private static final int DIAS = 7;
+    // Primeiro dia que ainda pode ser cancelado (antecedência mínima do serviço)
+    private static final int PRIMEIRO_DIA = 3;
+
+    @Param({"4", "64"})
+    public int pacientes;
+
+    private HikariDataSource dataSource;
+    private SistemaClinicaService service;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Resultados {
+        public long agendadas;
+        public long conflitos;
+
+        @Setup(Level.Iteration)
+        public void zerar() {
+            agendadas = 0;
+            conflitos = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:concorrencia;MODE=Oracle;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(16);
+
+        ResourceDatabasePopulator esquema = new ResourceDatabasePopulator(new ClassPathResource("db/local/schema.sql"));
+        esquema.setSqlScriptEncoding("UTF-8");
+        esquema.execute(dataSource);
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= pacientes; i++) {
+                stmt.setString(1, String.valueOf(i));
+                stmt.setString(2, "Paciente " + i);
+                stmt.setString(3, String.format("%011d", i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConexaoBD conexaoBD = new ConexaoBD(dataSource, registry, Duration.ofSeconds(15), 5, Duration.ofSeconds(10));
+        PacienteDAO pacienteDAO = new PacienteDAO(conexaoBD);
+        ConsultaDAO consultaDAO = new ConsultaDAO(conexaoBD);
+        VersoesTabelas versoes = new VersoesTabelas(Duration.ofSeconds(5));
+
+        service = new SistemaClinicaService(pacienteDAO, consultaDAO, null, null, null,
+                new ContadoresConsulta(consultaDAO, versoes),
+                new CachePacientes(pacienteDAO, versoes, registry, 10_000, Duration.ofMinutes(10)),
+                new AgendaConsultas(consultaDAO, false, 7, 60),
+                versoes);
+    }
+
+    @Setup(Level.Iteration)
+    public void limparConsultas() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM consultas");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public void agendar(Resultados resultados) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int pacienteId = 1 + aleatorio.nextInt(pacientes);
+        LocalDate dia = LocalDate.now().plusDays(PRIMEIRO_DIA + aleatorio.nextInt(DIAS));
+
+        Consulta consulta = new Consulta(0, pacienteId, dia, StatusConsulta.AGENDADA);
+        try {
+            service.agendarConsulta(consulta);
+        } catch (IllegalArgumentException e) {
+            resultados.conflitos++;
+            return;
+        }
+        resultados.agendadas++;
+        service.cancelarConsulta(consulta.getId());
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.service;
+
+import org.example.model.Consulta;
+import org.example.model.Paciente;
+import org.example.model.StatusConsulta;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo das regras de validação aplicadas em cada cadastro, agendamento e linha importada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoBenchmark {
+
+    private Paciente pacienteValido;
+    private Paciente pacienteCpfInvalido;
+    private Consulta consulta;
+
+    @Setup
+    public void preparar() {
+        pacienteValido = new Paciente("42", "Maria da Silva", "12345678901", LocalDate.of(1980, 5, 20));
+        pacienteValido.setIdade(44);
+
+        pacienteCpfInvalido = new Paciente("43", "João Souza", "123.456.789-0X", LocalDate.of(1975, 1, 2));
+
+        consulta = new Consulta(1, 42, LocalDate.now().plusDays(10), StatusConsulta.AGENDADA);
+    }
+
+    @Benchmark
+    public void validarPaciente() {
+        ValidacaoCadastro.validarPaciente(pacienteValido);
+    }
+
+    @Benchmark
+    public void validarPacienteRejeitado(Blackhole bh) {
+        try {
+            ValidacaoCadastro.validarPaciente(pacienteCpfInvalido);
+        } catch (IllegalArgumentException e) {
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void validarConsulta() {
+        ValidacaoCadastro.validarConsulta(consulta);
+    }
+}
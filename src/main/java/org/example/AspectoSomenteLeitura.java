@@ -0,0 +1,23 @@
+package org.example;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Marca a thread como somente leitura enquanto um método @SomenteLeitura executa,
+ * para o DataSourceRoteado entregar conexões da réplica. Registrado por DataSourceReplicaConfig.
+ */
+@Aspect
+public class AspectoSomenteLeitura {
+
+    @Around("@annotation(org.example.dao.SomenteLeitura)")
+    public Object emLeitura(ProceedingJoinPoint ponto) throws Throwable {
+        Boolean anterior = DataSourceRoteado.iniciarLeitura();
+        try {
+            return ponto.proceed();
+        } finally {
+            DataSourceRoteado.restaurarLeitura(anterior);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example;
+
+/**
+ * Acesso ao banco recusado pelo DisjuntorBanco com o circuito aberto. Os controllers
+ * respondem 503 com Retry-After em vez de 500, já que o cliente só precisa esperar.
+ */
+public class BancoIndisponivelException extends RuntimeException {
+
+    private final long segundosParaNovaTentativa;
+
+    BancoIndisponivelException(long segundosParaNovaTentativa) {
+        super("Banco de dados indisponível (circuito aberto); tente novamente em instantes");
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+
+    public long getSegundosParaNovaTentativa() {
+        return segundosParaNovaTentativa;
+    }
+
+    /**
+     * Procura a recusa na cadeia de causas: os services embrulham as exceções dos DAOs
+     *
+     * @return a exceção encontrada, ou null se a falha foi outra
+     */
+    public static BancoIndisponivelException naCadeia(Throwable erro) {
+        for (Throwable atual = erro; atual != null; atual = atual.getCause()) {
+            if (atual instanceof BancoIndisponivelException indisponivel) {
+                return indisponivel;
+            }
+        }
+        return null;
+    }
+}
@@ -1,34 +1,129 @@
 package org.example;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Ponto único de acesso às conexões com o banco.
+ * As conexões vêm do pool (HikariCP) configurado em application.yml
+ * em spring.datasource.hikari, em vez de abrir uma sessão nova a cada consulta.
+ * A URL vem de spring.datasource.url: Oracle por padrão, H2 no perfil "local".
+ * O tempo de espera por uma conexão é medido em conectahc.conexao.aquisicao.
+ *
+ * Todo Statement criado a partir das conexões entregues aqui recebe setQueryTimeout
+ * (conectahc.banco.timeout-consulta), e o acesso passa pelo DisjuntorBanco: com o Oracle
+ * falhando, getConnection recusa na hora com BancoIndisponivelException (503 nos controllers)
+ * em vez de esperar os timeouts a cada requisição.
+ * O disjuntor é do primário: com a réplica habilitada, falhas nas conexões dela ficam com
+ * o DataSourceRoteado, que manda as leituras para o primário, e com o disjuntor aberto as
+ * leituras @SomenteLeitura continuam sendo servidas pela réplica.
+ * Os timeouts de conexão e de leitura do socket ficam nas propriedades do driver, em
+ * spring.datasource.hikari.data-source-properties.
+ */
+@Component
 public class ConexaoBD {
-    private static final String URL = "jdbc:oracle:thin:@oracle.fiap.com.br:1521:ORCL";
-    private static final String USER = "RM565597";
-    private static final String PASSWORD = "241105";
 
+    private final DataSource dataSource;
+    private final Timer aquisicaoSucesso;
+    private final Timer aquisicaoErro;
+    private final int timeoutConsultaSegundos;
+    private final DisjuntorBanco disjuntor;
 
-    static {
+    public ConexaoBD(DataSource dataSource,
+                     MeterRegistry meterRegistry,
+                     @Value("${conectahc.banco.timeout-consulta:15s}") Duration timeoutConsulta,
+                     @Value("${conectahc.banco.circuito.falhas-para-abrir:5}") int falhasParaAbrir,
+                     @Value("${conectahc.banco.circuito.tempo-aberto:10s}") Duration tempoAberto) {
+        this.dataSource = dataSource;
+        this.aquisicaoSucesso = timerAquisicao(meterRegistry, "sucesso");
+        this.aquisicaoErro = timerAquisicao(meterRegistry, "erro");
+        this.timeoutConsultaSegundos = (int) Math.max(1, timeoutConsulta.toSeconds());
+        this.disjuntor = new DisjuntorBanco(falhasParaAbrir, tempoAberto.toNanos(), meterRegistry);
+    }
+
+    public Connection getConnection() {
+        long inicio = System.nanoTime();
         try {
+            Connection conn;
+            if (dataSource instanceof DataSourceRoteado roteado) {
+                // Leitura servida pela réplica não depende do estado do primário
+                conn = roteado.getConnection(this::verificarDisjuntor);
+            } else {
+                verificarDisjuntor();
+                conn = dataSource.getConnection();
+            }
+            aquisicaoSucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return comTimeoutEDisjuntor(conn, !(conn instanceof DataSourceRoteado.ConexaoReplica));
+        } catch (SQLException e) {
+            aquisicaoErro.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            // Esgotar o pool também conta: é o sintoma de consultas presas no Oracle
+            disjuntor.registrarFalha();
+            throw new RuntimeException("Erro na conexão com o Oracle: " + e.getMessage(), e);
+        }
+    }
 
-            Class.forName("oracle.jdbc.driver.OracleDriver");
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException("Driver Oracle JDBC não encontrado!", e);
+    private void verificarDisjuntor() {
+        if (!disjuntor.permitir()) {
+            throw new BancoIndisponivelException(disjuntor.segundosParaNovaTentativa());
         }
     }
 
-    public static Connection getConnection() {
+    /**
+     * Envolve a conexão para que os Statements criados nela tenham timeout de consulta
+     * e, se for do primário, informem ao disjuntor o resultado de cada execute*.
+     */
+    private Connection comTimeoutEDisjuntor(Connection conn, boolean contarNoDisjuntor) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object retorno = invocar(conn, metodo, args);
+                    if (retorno instanceof Statement stmt) {
+                        stmt.setQueryTimeout(timeoutConsultaSegundos);
+                        return contarNoDisjuntor ? monitorar(stmt, metodo.getReturnType()) : stmt;
+                    }
+                    return retorno;
+                });
+    }
+
+    private Object monitorar(Statement stmt, Class<?> tipo) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[]{tipo},
+                (proxy, metodo, args) -> {
+                    if (!metodo.getName().startsWith("execute")) {
+                        return invocar(stmt, metodo, args);
+                    }
+                    try {
+                        Object retorno = invocar(stmt, metodo, args);
+                        disjuntor.registrarSucesso();
+                        return retorno;
+                    } catch (SQLException e) {
+                        disjuntor.registrar(e);
+                        throw e;
+                    }
+                });
+    }
+
+    static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
         try {
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (SQLException e) {
-            throw new RuntimeException("Erro na conexão com o Oracle: " + e.getMessage(), e);
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
         }
     }
 
-    public static void testarConexao() {
+    public void testarConexao() {
         try (Connection conn = getConnection()) {
             System.out.println("Conexão com Oracle estabelecida com sucesso!");
             System.out.println("Banco: Oracle " + conn.getMetaData().getDatabaseProductVersion());
@@ -41,4 +136,12 @@ public class ConexaoBD {
             System.out.println("   - Service Name/SID correto");
         }
     }
+
+    private static Timer timerAquisicao(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("conectahc.conexao.aquisicao")
+                .description("Tempo para obter uma conexão do pool")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,66 @@
+package org.example;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Separação de leitura e escrita, ativada com conectahc.replica.habilitada=true.
+ *
+ * O primário continua configurado em spring.datasource (pool em spring.datasource.hikari)
+ * e a réplica em conectahc.replica (pool em conectahc.replica.hikari). Os dois pools ficam
+ * dentro do DataSourceRoteado, que é o único DataSource da aplicação; assim o health check
+ * não fica DOWN quando só a réplica cai, já que as leituras voltam para o primário.
+ * Sem a propriedade, o Spring Boot monta o DataSource único de sempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "conectahc.replica.habilitada", havingValue = "true")
+public class DataSourceReplicaConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties propriedades,
+                                 Environment ambiente,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${conectahc.replica.url}") String urlReplica,
+                                 @Value("${conectahc.replica.usuario:${spring.datasource.username:}}") String usuarioReplica,
+                                 @Value("${conectahc.replica.senha:${spring.datasource.password:}}") String senhaReplica,
+                                 @Value("${conectahc.replica.tempo-recuperacao:30s}") Duration tempoRecuperacao) {
+        Binder binder = Binder.get(ambiente);
+
+        HikariDataSource primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        primario.setMetricRegistry(meterRegistry);
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(urlReplica);
+        replica.setUsername(usuarioReplica);
+        replica.setPassword(senhaReplica);
+        // Réplica fora no boot não impede a aplicação de subir
+        replica.setInitializationFailTimeout(-1);
+        binder.bind("conectahc.replica.hikari", Bindable.ofInstance(replica));
+        replica.setMetricRegistry(meterRegistry);
+
+        return new DataSourceRoteado(primario, replica, tempoRecuperacao.toNanos());
+    }
+
+    @Bean
+    public AspectoSomenteLeitura aspectoSomenteLeitura() {
+        return new AspectoSomenteLeitura();
+    }
+
+    @Bean
+    public JanelaLeituraPropria janelaLeituraPropria(
+            @Value("${conectahc.replica.janela-leitura-propria:5s}") Duration janela) {
+        return new JanelaLeituraPropria(janela);
+    }
+}
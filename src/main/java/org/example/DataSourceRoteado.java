@@ -0,0 +1,244 @@
+package org.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que manda as leituras marcadas com @SomenteLeitura para a réplica e todo o
+ * resto para o primário.
+ *
+ * A réplica só é usada quando a thread está dentro de um método @SomenteLeitura e não
+ * está obrigada a ler do primário (requisição de escrita ou cliente na janela de leitura
+ * das próprias escritas, ver JanelaLeituraPropria). Se a réplica não entregar conexão,
+ * a leitura cai para o primário e a réplica fica fora por tempoRecuperacao; depois disso
+ * uma única leitura testa a réplica de novo enquanto as demais seguem no primário.
+ *
+ * Timeout ou erro de conexão ao executar um comando na réplica também a tira do ar pelo
+ * mesmo prazo. Essas falhas não contam no DisjuntorBanco do ConexaoBD, que protege o
+ * primário: as conexões da réplica são marcadas com ConexaoReplica e ficam de fora dele,
+ * e o disjuntor só é conferido quando a conexão sai do primário (getConnection(Runnable)).
+ *
+ * O roteamento é por thread; tarefas disparadas em executores levam o da requisição
+ * quando envolvidas por comRoteamento.
+ */
+public class DataSourceRoteado extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRoteado.class);
+
+    private static final ThreadLocal<Boolean> LEITURA = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARIO_OBRIGATORIO = new ThreadLocal<>();
+
+    enum Destino { PRIMARIO, REPLICA }
+
+    /**
+     * Implementada pelas conexões entregues pela réplica.
+     */
+    interface ConexaoReplica {
+    }
+
+    private final DataSource primario;
+    private final DataSource replica;
+    private final long tempoRecuperacaoNanos;
+    // nanoTime até o qual a réplica é evitada; 0 = disponível
+    private final AtomicLong replicaForaAte = new AtomicLong();
+
+    public DataSourceRoteado(DataSource primario, DataSource replica, long tempoRecuperacaoNanos) {
+        this.primario = primario;
+        this.replica = replica;
+        this.tempoRecuperacaoNanos = tempoRecuperacaoNanos;
+    }
+
+    /**
+     * Marca a thread como dentro de um método somente leitura.
+     *
+     * @return o valor anterior, a ser passado para restaurarLeitura
+     */
+    static Boolean iniciarLeitura() {
+        Boolean anterior = LEITURA.get();
+        LEITURA.set(Boolean.TRUE);
+        return anterior;
+    }
+
+    static void restaurarLeitura(Boolean anterior) {
+        restaurar(LEITURA, anterior);
+    }
+
+    /**
+     * Obriga a thread a ler do primário, mesmo em métodos somente leitura.
+     *
+     * @return o valor anterior, a ser passado para restaurarPrimarioObrigatorio
+     */
+    static Boolean exigirPrimario() {
+        Boolean anterior = PRIMARIO_OBRIGATORIO.get();
+        PRIMARIO_OBRIGATORIO.set(Boolean.TRUE);
+        return anterior;
+    }
+
+    static void restaurarPrimarioObrigatorio(Boolean anterior) {
+        restaurar(PRIMARIO_OBRIGATORIO, anterior);
+    }
+
+    /**
+     * Executa a tarefa com as leituras no primário, para quem guarda o resultado além da
+     * requisição e não pode aceitar o atraso da réplica.
+     */
+    public static <T> T noPrimario(Supplier<T> tarefa) {
+        Boolean anterior = exigirPrimario();
+        try {
+            return tarefa.get();
+        } finally {
+            restaurarPrimarioObrigatorio(anterior);
+        }
+    }
+
+    /**
+     * Envolve a tarefa para que ela rode com o roteamento da thread atual (dentro de um método
+     * somente leitura, leitura obrigada ao primário), mesmo disparada em outra thread.
+     */
+    public static <T> Supplier<T> comRoteamento(Supplier<T> tarefa) {
+        Boolean leitura = LEITURA.get();
+        Boolean primarioObrigatorio = PRIMARIO_OBRIGATORIO.get();
+        if (leitura == null && primarioObrigatorio == null) {
+            return tarefa;
+        }
+        return () -> {
+            Boolean leituraAnterior = LEITURA.get();
+            Boolean primarioAnterior = PRIMARIO_OBRIGATORIO.get();
+            restaurar(LEITURA, leitura);
+            restaurar(PRIMARIO_OBRIGATORIO, primarioObrigatorio);
+            try {
+                return tarefa.get();
+            } finally {
+                restaurar(LEITURA, leituraAnterior);
+                restaurar(PRIMARIO_OBRIGATORIO, primarioAnterior);
+            }
+        };
+    }
+
+    /**
+     * Como comRoteamento(Supplier), para consumidores (ex.: a fonte de uma exportação NDJSON).
+     */
+    public static <T> Consumer<T> comRoteamento(Consumer<T> tarefa) {
+        Boolean leitura = LEITURA.get();
+        Boolean primarioObrigatorio = PRIMARIO_OBRIGATORIO.get();
+        if (leitura == null && primarioObrigatorio == null) {
+            return tarefa;
+        }
+        return item -> {
+            Boolean leituraAnterior = LEITURA.get();
+            Boolean primarioAnterior = PRIMARIO_OBRIGATORIO.get();
+            restaurar(LEITURA, leitura);
+            restaurar(PRIMARIO_OBRIGATORIO, primarioObrigatorio);
+            try {
+                tarefa.accept(item);
+            } finally {
+                restaurar(LEITURA, leituraAnterior);
+                restaurar(PRIMARIO_OBRIGATORIO, primarioAnterior);
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(() -> {
+        });
+    }
+
+    /**
+     * Como getConnection(), chamando verificarPrimario logo antes de pedir conexão ao
+     * primário, inclusive quando a leitura cai da réplica para ele. Uma exceção lançada
+     * pela verificação sai daqui sem que a conexão seja pedida.
+     */
+    public Connection getConnection(Runnable verificarPrimario) throws SQLException {
+        if (destino() == Destino.PRIMARIO) {
+            verificarPrimario.run();
+            return primario.getConnection();
+        }
+        Connection conn;
+        try {
+            conn = replica.getConnection();
+        } catch (SQLException | RuntimeException e) {
+            marcarReplicaFora(e.getMessage());
+            verificarPrimario.run();
+            return primario.getConnection();
+        }
+        replicaForaAte.set(0);
+        return daReplica(conn);
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String senha) throws SQLException {
+        return primario.getConnection(usuario, senha);
+    }
+
+    Destino destino() {
+        if (LEITURA.get() == null || PRIMARIO_OBRIGATORIO.get() != null) {
+            return Destino.PRIMARIO;
+        }
+
+        long foraAte = replicaForaAte.get();
+        if (foraAte == 0) {
+            return Destino.REPLICA;
+        }
+        // Prazo vencido: só a thread que ganhar o CAS testa a réplica
+        if (System.nanoTime() - foraAte >= 0 &&
+                replicaForaAte.compareAndSet(foraAte, System.nanoTime() + tempoRecuperacaoNanos)) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIO;
+    }
+
+    private void marcarReplicaFora(String motivo) {
+        replicaForaAte.set(System.nanoTime() + tempoRecuperacaoNanos);
+        logger.warn("Réplica indisponível, leituras no primário por {} ms: {}",
+                tempoRecuperacaoNanos / 1_000_000, motivo);
+    }
+
+    /**
+     * Marca a conexão como da réplica e observa os execute* dos Statements criados nela.
+     */
+    private Connection daReplica(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(DataSourceRoteado.class.getClassLoader(),
+                new Class<?>[]{Connection.class, ConexaoReplica.class},
+                (proxy, metodo, args) -> {
+                    Object retorno = ConexaoBD.invocar(conn, metodo, args);
+                    if (retorno instanceof Statement stmt) {
+                        return monitorar(stmt, metodo.getReturnType());
+                    }
+                    return retorno;
+                });
+    }
+
+    private Object monitorar(Statement stmt, Class<?> tipo) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[]{tipo},
+                (proxy, metodo, args) -> {
+                    try {
+                        return ConexaoBD.invocar(stmt, metodo, args);
+                    } catch (SQLException e) {
+                        if (metodo.getName().startsWith("execute") && DisjuntorBanco.indicaIndisponibilidade(e)) {
+                            marcarReplicaFora(e.getMessage());
+                        }
+                        throw e;
+                    }
+                });
+    }
+
+    private static void restaurar(ThreadLocal<Boolean> variavel, Boolean anterior) {
+        if (anterior == null) {
+            variavel.remove();
+        } else {
+            variavel.set(anterior);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Circuit breaker do acesso ao banco, usado pelo ConexaoBD.
+ *
+ * Fechado: tudo passa. Depois de N falhas seguidas (timeout ou erro de conexão) abre e,
+ * pelo tempo configurado, getConnection falha na hora, sem ocupar o pool nem esperar o
+ * Oracle. Esgotado o tempo, fica meio-aberto e deixa passar uma única sonda: se ela
+ * funcionar o circuito fecha, se falhar abre de novo.
+ *
+ * Erros de SQL que mostram que o banco respondeu (constraint, sintaxe) contam como sucesso.
+ */
+final class DisjuntorBanco {
+
+    private static final Logger logger = LoggerFactory.getLogger(DisjuntorBanco.class);
+
+    enum Estado { FECHADO, MEIO_ABERTO, ABERTO }
+
+    private final int limiteFalhas;
+    private final long tempoAbertoNanos;
+    private final AtomicInteger falhasSeguidas = new AtomicInteger();
+    private final Counter recusas;
+
+    private volatile Estado estado = Estado.FECHADO;
+    // Até quando recusar; no meio-aberto, prazo da sonda antes de liberar outra
+    private volatile long recusarAte;
+
+    DisjuntorBanco(int limiteFalhas, long tempoAbertoNanos, MeterRegistry meterRegistry) {
+        this.limiteFalhas = limiteFalhas;
+        this.tempoAbertoNanos = tempoAbertoNanos;
+        this.recusas = Counter.builder("conectahc.banco.circuito.recusas")
+                .description("Acessos ao banco recusados com o circuito aberto")
+                .register(meterRegistry);
+        Gauge.builder("conectahc.banco.circuito", this, d -> d.estado.ordinal())
+                .description("Estado do circuito: 0 fechado, 1 meio-aberto, 2 aberto")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false se o acesso deve falhar imediatamente
+     */
+    boolean permitir() {
+        if (estado == Estado.FECHADO) {
+            return true;
+        }
+        if (System.nanoTime() - recusarAte >= 0 && liberarSonda()) {
+            return true;
+        }
+        recusas.increment();
+        return false;
+    }
+
+    private synchronized boolean liberarSonda() {
+        long agora = System.nanoTime();
+        if (estado == Estado.FECHADO) {
+            return true;
+        }
+        if (agora - recusarAte < 0) {
+            // Outra thread acabou de liberar a sonda
+            return false;
+        }
+        estado = Estado.MEIO_ABERTO;
+        recusarAte = agora + tempoAbertoNanos;
+        logger.info("Circuito do banco meio-aberto: testando com uma requisição");
+        return true;
+    }
+
+    void registrarSucesso() {
+        falhasSeguidas.set(0);
+        if (estado != Estado.FECHADO) {
+            fechar();
+        }
+    }
+
+    /**
+     * Conta a falha se ela indicar banco lento ou inacessível; outros erros contam como sucesso.
+     */
+    void registrar(SQLException e) {
+        if (indicaIndisponibilidade(e)) {
+            registrarFalha();
+        } else {
+            registrarSucesso();
+        }
+    }
+
+    void registrarFalha() {
+        if (estado == Estado.MEIO_ABERTO) {
+            abrir("sonda falhou");
+        } else if (falhasSeguidas.incrementAndGet() >= limiteFalhas) {
+            abrir(limiteFalhas + " falhas seguidas");
+        }
+    }
+
+    Estado estado() {
+        return estado;
+    }
+
+    /**
+     * Segundos até o circuito liberar a próxima sonda, para o Retry-After (no mínimo 1)
+     */
+    long segundosParaNovaTentativa() {
+        long restante = recusarAte - System.nanoTime();
+        return Math.max(1, (restante + 999_999_999) / 1_000_000_000);
+    }
+
+    private synchronized void abrir(String motivo) {
+        recusarAte = System.nanoTime() + tempoAbertoNanos;
+        if (estado != Estado.ABERTO) {
+            estado = Estado.ABERTO;
+            logger.warn("Circuito do banco aberto ({}); nova tentativa em {} ms",
+                    motivo, tempoAbertoNanos / 1_000_000);
+        }
+    }
+
+    private synchronized void fechar() {
+        if (estado != Estado.FECHADO) {
+            estado = Estado.FECHADO;
+            falhasSeguidas.set(0);
+            logger.info("Circuito do banco fechado: acesso normalizado");
+        }
+    }
+
+    static boolean indicaIndisponibilidade(SQLException e) {
+        String sqlState = e.getSQLState();
+        return e instanceof SQLTimeoutException
+                || e instanceof SQLRecoverableException
+                || e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException
+                || (sqlState != null && sqlState.startsWith("08"));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Garante que o cliente leia as próprias escritas com a réplica habilitada: requisições de
+ * escrita leem tudo do primário, e por um tempo depois delas (a janela) as leituras do mesmo
+ * cliente também. O cliente é identificado pelo endereço remoto; atrás de um proxy sem
+ * X-Forwarded-For todos compartilham a janela, o que só manda mais leituras ao primário.
+ *
+ * Vale para a thread da requisição e para as tarefas que ela dispara envolvidas por
+ * DataSourceRoteado.comRoteamento (perfil completo, exportação NDJSON).
+ * Registrado por DataSourceReplicaConfig.
+ */
+public class JanelaLeituraPropria extends OncePerRequestFilter {
+
+    private final Cache<String, Boolean> escritasRecentes;
+
+    public JanelaLeituraPropria(Duration janela) {
+        this.escritasRecentes = Caffeine.newBuilder()
+                .expireAfterWrite(janela)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest requisicao,
+                                    HttpServletResponse resposta,
+                                    FilterChain cadeia) throws ServletException, IOException {
+        String cliente = requisicao.getRemoteAddr();
+        String metodo = requisicao.getMethod();
+        boolean escrita = !"GET".equals(metodo) && !"HEAD".equals(metodo);
+
+        if (!escrita && escritasRecentes.getIfPresent(cliente) == null) {
+            cadeia.doFilter(requisicao, resposta);
+            return;
+        }
+
+        Boolean anterior = DataSourceRoteado.exigirPrimario();
+        try {
+            cadeia.doFilter(requisicao, resposta);
+        } finally {
+            DataSourceRoteado.restaurarPrimarioObrigatorio(anterior);
+            if (escrita) {
+                // A janela conta a partir do fim da escrita
+                escritasRecentes.put(cliente, Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Módulos Jackson registrados no ObjectMapper do Spring Boot.
+ */
+@Configuration
+public class JsonConfig {
+
+    /**
+     * Troca o acesso por reflexão a getters e construtores por chamadas geradas em tempo de execução
+     */
+    @Bean
+    public Module moduloBlackbird() {
+        return new BlackbirdModule();
+    }
+}
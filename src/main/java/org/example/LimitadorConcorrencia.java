@@ -0,0 +1,262 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.controller.RespostaApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Compartimentos (bulkheads) de concorrência por classe de endpoint, cada um com um
+ * LimiteAdaptativo próprio:
+ * - listagem: GET /consultas, /consultas/relatorio, /consultas/periodo e GET /pacientes
+ *   (incluindo as exportações NDJSON);
+ * - escrita: todo POST, PUT e DELETE;
+ * - consulta: os demais GETs da API (busca por id, CPF, disponibilidade...).
+ *
+ * Assim uma rajada de listagens pesadas não ocupa todas as threads do Tomcat e todas as
+ * sessões do pool, e buscas e agendamentos continuam sendo atendidos. Acima do limite a
+ * resposta é 503 com Retry-After, sem esperar, e a recusa é contada em
+ * conectahc.limite.rejeicoes.
+ *
+ * O limite é ajustado pelo tempo que a requisição passou nos DAOs (somado por
+ * MetricasOperacoes na thread da requisição e nas tarefas que ela dispara em executores,
+ * desde que envolvidas por comTempoDao); quem não tocou o banco (cache, 304) conta
+ * como amostra rápida. As exportações assíncronas só ocupam a vaga, sem gerar amostra.
+ * Health checks e o actuator não passam pelo limitador.
+ */
+@Component
+public class LimitadorConcorrencia extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LimitadorConcorrencia.class);
+
+    private static final String RETRY_AFTER_SEGUNDOS = "1";
+    private static final Set<String> CAMINHOS_LISTAGEM = Set.of(
+            "/api/v1/consultas", "/api/v1/consultas/relatorio", "/api/v1/consultas/periodo",
+            "/api/v1/pacientes");
+
+    // Nanos gastos nos DAOs pela requisição em andamento; compartilhado com as tarefas que ela dispara
+    private static final ThreadLocal<LongAdder> TEMPO_DAO = new ThreadLocal<>();
+
+    enum Compartimento {
+        LISTAGEM("listagem"),
+        ESCRITA("escrita"),
+        CONSULTA("consulta");
+
+        private final String nome;
+
+        Compartimento(String nome) {
+            this.nome = nome;
+        }
+    }
+
+    private final boolean habilitado;
+    private final ObjectMapper objectMapper;
+    private final EnumMap<Compartimento, LimiteAdaptativo> limites = new EnumMap<>(Compartimento.class);
+    private final EnumMap<Compartimento, Counter> rejeicoes = new EnumMap<>(Compartimento.class);
+
+    public LimitadorConcorrencia(ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${conectahc.limites.habilitado:true}") boolean habilitado,
+                                 @Value("${conectahc.limites.listagem.maximo:4}") int maximoListagem,
+                                 @Value("${conectahc.limites.listagem.latencia-alvo:300ms}") Duration alvoListagem,
+                                 @Value("${conectahc.limites.escrita.maximo:6}") int maximoEscrita,
+                                 @Value("${conectahc.limites.escrita.latencia-alvo:150ms}") Duration alvoEscrita,
+                                 @Value("${conectahc.limites.consulta.maximo:10}") int maximoConsulta,
+                                 @Value("${conectahc.limites.consulta.latencia-alvo:50ms}") Duration alvoConsulta) {
+        this.objectMapper = objectMapper;
+        this.habilitado = habilitado;
+        limites.put(Compartimento.LISTAGEM, new LimiteAdaptativo(1, maximoListagem, alvoListagem.toNanos()));
+        limites.put(Compartimento.ESCRITA, new LimiteAdaptativo(1, maximoEscrita, alvoEscrita.toNanos()));
+        limites.put(Compartimento.CONSULTA, new LimiteAdaptativo(1, maximoConsulta, alvoConsulta.toNanos()));
+
+        for (Compartimento compartimento : Compartimento.values()) {
+            LimiteAdaptativo limite = limites.get(compartimento);
+            rejeicoes.put(compartimento, Counter.builder("conectahc.limite.rejeicoes")
+                    .description("Requisições recusadas com 503 por excesso de concorrência")
+                    .tag("compartimento", compartimento.nome)
+                    .register(meterRegistry));
+            Gauge.builder("conectahc.limite.atual", limite, LimiteAdaptativo::limiteAtual)
+                    .tag("compartimento", compartimento.nome)
+                    .register(meterRegistry);
+            Gauge.builder("conectahc.limite.em.uso", limite, LimiteAdaptativo::emUso)
+                    .tag("compartimento", compartimento.nome)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Soma o tempo de uma chamada de DAO à requisição em andamento nesta thread, se houver.
+     */
+    static void registrarTempoDao(long nanos) {
+        LongAdder tempo = TEMPO_DAO.get();
+        if (tempo != null) {
+            tempo.add(nanos);
+        }
+    }
+
+    /**
+     * Envolve uma tarefa que vai rodar em outro executor para que o tempo dela nos DAOs
+     * seja somado à requisição que a disparou. Fora de uma requisição devolve a própria tarefa.
+     */
+    public static <T> Supplier<T> comTempoDao(Supplier<T> tarefa) {
+        LongAdder tempo = TEMPO_DAO.get();
+        if (tempo == null) {
+            return tarefa;
+        }
+        return () -> {
+            LongAdder anterior = TEMPO_DAO.get();
+            TEMPO_DAO.set(tempo);
+            try {
+                return tarefa.get();
+            } finally {
+                restaurarTempoDao(anterior);
+            }
+        };
+    }
+
+    /**
+     * Como comTempoDao(Supplier), para tarefas sem resultado.
+     */
+    public static Runnable comTempoDao(Runnable tarefa) {
+        LongAdder tempo = TEMPO_DAO.get();
+        if (tempo == null) {
+            return tarefa;
+        }
+        return () -> {
+            LongAdder anterior = TEMPO_DAO.get();
+            TEMPO_DAO.set(tempo);
+            try {
+                tarefa.run();
+            } finally {
+                restaurarTempoDao(anterior);
+            }
+        };
+    }
+
+    // A tarefa pode rodar na própria thread da requisição (CallerRunsPolicy)
+    private static void restaurarTempoDao(LongAdder anterior) {
+        if (anterior == null) {
+            TEMPO_DAO.remove();
+        } else {
+            TEMPO_DAO.set(anterior);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest requisicao) {
+        return !habilitado || classificar(requisicao) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest requisicao,
+                                    HttpServletResponse resposta,
+                                    FilterChain cadeia) throws ServletException, IOException {
+        Compartimento compartimento = classificar(requisicao);
+        LimiteAdaptativo limite = limites.get(compartimento);
+
+        if (!limite.tentarAdquirir()) {
+            rejeicoes.get(compartimento).increment();
+            logger.warn("Requisição {} {} recusada: limite de {} atingido ({})",
+                    requisicao.getMethod(), requisicao.getRequestURI(), compartimento.nome, limite.limiteAtual());
+            recusar(resposta);
+            return;
+        }
+
+        LongAdder tempo = new LongAdder();
+        TEMPO_DAO.set(tempo);
+        boolean assincrona = false;
+        try {
+            cadeia.doFilter(requisicao, resposta);
+            if (requisicao.isAsyncStarted()) {
+                // Exportação NDJSON: a vaga fica ocupada até o fim do streaming
+                requisicao.getAsyncContext().addListener(new LiberarAoConcluir(limite));
+                assincrona = true;
+            }
+        } finally {
+            TEMPO_DAO.remove();
+            if (!assincrona) {
+                limite.liberar(tempo.sum());
+            }
+        }
+    }
+
+    private static Compartimento classificar(HttpServletRequest requisicao) {
+        String caminho = requisicao.getRequestURI().substring(requisicao.getContextPath().length());
+        if (!caminho.startsWith("/api/") || caminho.endsWith("/health")) {
+            return null;
+        }
+
+        String metodo = requisicao.getMethod();
+        if (!"GET".equals(metodo) && !"HEAD".equals(metodo)) {
+            return Compartimento.ESCRITA;
+        }
+        return CAMINHOS_LISTAGEM.contains(caminho) ? Compartimento.LISTAGEM : Compartimento.CONSULTA;
+    }
+
+    private void recusar(HttpServletResponse resposta) throws IOException {
+        resposta.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        resposta.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SEGUNDOS);
+        resposta.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(resposta.getOutputStream(),
+                RespostaApi.erro("Servidor ocupado, tente novamente em instantes", 503));
+    }
+
+    private static final class LiberarAoConcluir implements AsyncListener {
+
+        private final LimiteAdaptativo limite;
+        private final AtomicBoolean liberado = new AtomicBoolean();
+
+        LiberarAoConcluir(LimiteAdaptativo limite) {
+            this.limite = limite;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+            liberar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+        }
+
+        // onError e onComplete podem chegar os dois
+        private void liberar() {
+            if (liberado.compareAndSet(false, true)) {
+                limite.liberar(-1);
+            }
+        }
+    }
+}
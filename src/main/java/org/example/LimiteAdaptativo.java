@@ -0,0 +1,70 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de requisições simultâneas ajustado por AIMD: cada amostra de latência acima do alvo
+ * reduz o limite em 10% (multiplicativo); amostras dentro do alvo, com o limite em uso,
+ * somam 1/limite (cerca de +1 a cada "rodada" de requisições). O limite fica entre o mínimo
+ * e o máximo configurados e começa no máximo: os máximos já são o tamanho esperado de cada
+ * compartimento (somados, o pool do Hikari), e a redução multiplicativa corrige rápido se
+ * a latência não acompanhar.
+ *
+ * Não há fila: quem chega com o limite ocupado é recusado na hora.
+ */
+final class LimiteAdaptativo {
+
+    private static final double FATOR_REDUCAO = 0.9;
+
+    private final int minimo;
+    private final int maximo;
+    private final long alvoNanos;
+    private final AtomicInteger emUso = new AtomicInteger();
+    private volatile double limite;
+
+    LimiteAdaptativo(int minimo, int maximo, long alvoNanos) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.alvoNanos = alvoNanos;
+        this.limite = Math.max(minimo, maximo);
+    }
+
+    boolean tentarAdquirir() {
+        while (true) {
+            int atual = emUso.get();
+            if (atual >= (int) limite) {
+                return false;
+            }
+            if (emUso.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devolve a vaga. Uma amostra negativa significa "sem medição" e não altera o limite.
+     */
+    void liberar(long amostraNanos) {
+        if (amostraNanos >= 0) {
+            ajustar(amostraNanos, emUso.get());
+        }
+        emUso.decrementAndGet();
+    }
+
+    private synchronized void ajustar(long amostraNanos, int emUsoNaAmostra) {
+        if (amostraNanos > alvoNanos) {
+            limite = Math.max(minimo, limite * FATOR_REDUCAO);
+        } else if (emUsoNaAmostra * 2 >= limite) {
+            // Só cresce se o limite atual estiver de fato sendo usado
+            limite = Math.min(maximo, limite + 1.0 / limite);
+        }
+    }
+
+    int limiteAtual() {
+        return (int) limite;
+    }
+
+    int emUso() {
+        return emUso.get();
+    }
+}
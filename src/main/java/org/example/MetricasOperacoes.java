@@ -0,0 +1,79 @@
+package org.example;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers com histograma de percentis para cada método público dos DAOs
+ * (conectahc.dao, tag consulta) e para cada operação de OperacoesSistema
+ * (conectahc.servico, tag operacao), separados pela tag resultado (sucesso/erro).
+ *
+ * Expostos em /actuator/prometheus; p50/p99 saem de histogram_quantile sobre os buckets.
+ * O tempo nos DAOs também é repassado ao LimitadorConcorrencia, só pela chamada mais
+ * externa: um DAO que chama outro não soma o mesmo intervalo duas vezes.
+ */
+@Aspect
+@Component
+public class MetricasOperacoes {
+
+    // Chamadas de DAO em andamento na thread; só a de nível 1 alimenta o limitador
+    private static final ThreadLocal<int[]> PROFUNDIDADE_DAO = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MetricasOperacoes(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * org.example.dao.*DAO.*(..))")
+    public Object medirDao(ProceedingJoinPoint ponto) throws Throwable {
+        String consulta = ponto.getSignature().getDeclaringType().getSimpleName() + "." + ponto.getSignature().getName();
+        int[] profundidade = PROFUNDIDADE_DAO.get();
+        long inicio = System.nanoTime();
+        profundidade[0]++;
+        try {
+            return medir("conectahc.dao", "consulta", consulta, ponto);
+        } finally {
+            if (--profundidade[0] == 0) {
+                // Alimenta o limite adaptativo do compartimento da requisição
+                LimitadorConcorrencia.registrarTempoDao(System.nanoTime() - inicio);
+            }
+        }
+    }
+
+    @Around("execution(* org.example.service.OperacoesSistema.*(..))")
+    public Object medirServico(ProceedingJoinPoint ponto) throws Throwable {
+        return medir("conectahc.servico", "operacao", ponto.getSignature().getName(), ponto);
+    }
+
+    private Object medir(String metrica, String tag, String valor, ProceedingJoinPoint ponto) throws Throwable {
+        long inicio = System.nanoTime();
+        String resultado = "erro";
+        try {
+            Object retorno = ponto.proceed();
+            resultado = "sucesso";
+            return retorno;
+        } finally {
+            timer(metrica, tag, valor, resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String metrica, String tag, String valor, String resultado) {
+        // Evita montar o Meter.Id a cada chamada
+        return timers.computeIfAbsent(metrica + '|' + valor + '|' + resultado,
+                chave -> Timer.builder(metrica)
+                        .tag(tag, valor)
+                        .tag("resultado", resultado)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+}
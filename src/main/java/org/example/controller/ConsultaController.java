@@ -1,15 +1,25 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.BancoIndisponivelException;
 import org.example.model.Consulta;
+import org.example.model.ErroItemLote;
+import org.example.model.Pagina;
+import org.example.model.ResultadoLote;
 import org.example.service.SistemaClinicaService;
+import org.example.service.VersoesTabelas;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,33 +42,63 @@ public class ConsultaController {
     @Autowired
     private SistemaClinicaService sistemaClinicaService;
 
+    @Autowired
+    private EscritorNdjson escritorNdjson;
+
+    @Autowired
+    private VersoesTabelas versoesTabelas;
+
+    // ========================================
+    // CORPOS DAS RESPOSTAS
+    // ========================================
+
+    public record PaginaConsultas(int total, List<Consulta> consultas, int limite,
+                                  @JsonInclude(JsonInclude.Include.ALWAYS) String proximoCursor) {
+    }
+
+    public record ConsultasPaciente(int pacienteId, int total, List<Consulta> consultas) {
+    }
+
+    public record ConsultasPeriodo(String dataInicio, String dataFim, int total, List<Consulta> consultas) {
+    }
+
+    public record LoteConsultas(int totalAgendadas, int totalErros, List<Consulta> consultas,
+                                List<ErroItemLote> erros) {
+    }
+
     // ========================================
     // MÉTODOS AUXILIARES
     // ========================================
 
     /**
-     * Constrói uma resposta padronizada de sucesso
+     * Constrói uma resposta padronizada de sucesso (visível no pacote para os benchmarks)
      */
-    private Map<String, Object> construirRespostaSucesso(String mensagem, Object dados, int status) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("sucesso", true);
-        response.put("mensagem", mensagem);
-        response.put("dados", dados);
-        response.put("status", status);
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    <T> RespostaApi<T> construirRespostaSucesso(String mensagem, T dados, int status) {
+        return RespostaApi.sucesso(mensagem, dados, status);
     }
 
     /**
      * Constrói uma resposta padronizada de erro
      */
-    private Map<String, Object> construirRespostaErro(String mensagem, int status) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("sucesso", false);
-        response.put("mensagem", mensagem);
-        response.put("status", status);
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    private RespostaApi<Void> construirRespostaErro(String mensagem, int status) {
+        return RespostaApi.erro(mensagem, status);
+    }
+
+    /**
+     * Resposta para falhas inesperadas: 503 com Retry-After se o banco estiver com o
+     * circuito aberto, 500 nos demais casos
+     */
+    private ResponseEntity<RespostaApi<?>> construirRespostaFalha(String mensagem, Exception e) {
+        BancoIndisponivelException indisponivel = BancoIndisponivelException.naCadeia(e);
+        if (indisponivel != null) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(indisponivel.getSegundosParaNovaTentativa()))
+                    .body(construirRespostaErro(indisponivel.getMessage(), 503));
+        }
+        return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(construirRespostaErro(mensagem, 500));
     }
 
     // ========================================
@@ -73,7 +113,7 @@ public class ConsultaController {
      * @return ResponseEntity com dados da consulta agendada
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> agendarConsulta(@RequestBody Consulta consulta) {
+    public ResponseEntity<RespostaApi<?>> agendarConsulta(@RequestBody Consulta consulta) {
         try {
             logger.info("Recebendo requisição para agendar consulta para paciente: {}",
                     consulta.getPacienteId());
@@ -105,12 +145,55 @@ public class ConsultaController {
 
         } catch (Exception e) {
             logger.error("Erro ao agendar consulta: {}", e.getMessage(), e);
+            return construirRespostaFalha("Erro ao agendar consulta", e);
+        }
+    }
+
+    /**
+     * POST /api/v1/consultas/lote
+     * Agenda várias consultas de uma vez, em uma única transação
+     *
+     * @param consultas Lista de consultas a agendar
+     * @return ResponseEntity com as consultas agendadas e os erros por item
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<RespostaApi<?>> agendarConsultasEmLote(@RequestBody List<Consulta> consultas) {
+        try {
+            logger.info("Recebendo lote de consultas: {}", consultas != null ? consultas.size() : 0);
+
+            ResultadoLote<Consulta> resultado = sistemaClinicaService.agendarConsultasEmLote(consultas);
+
+            LoteConsultas dados = new LoteConsultas(
+                    resultado.getProcessados().size(),
+                    resultado.getErros().size(),
+                    resultado.getProcessados(),
+                    resultado.getErros()
+            );
+
+            if (resultado.getProcessados().isEmpty()) {
+                logger.warn("Nenhuma consulta do lote pôde ser agendada");
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(RespostaApi.erro("Nenhuma consulta do lote é válida", dados, 400));
+            }
+
             return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao agendar consulta",
-                            500
+                    .status(HttpStatus.CREATED)
+                    .body(construirRespostaSucesso(
+                            "Lote de consultas processado",
+                            dados,
+                            201
                     ));
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Validação falhou ao agendar lote: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(construirRespostaErro(e.getMessage(), 400));
+
+        } catch (Exception e) {
+            logger.error("Erro ao agendar lote de consultas: {}", e.getMessage(), e);
+            return construirRespostaFalha("Erro ao agendar lote de consultas", e);
         }
     }
 
@@ -119,40 +202,75 @@ public class ConsultaController {
     // ========================================
 
     /**
-     * GET /api/v1/consultas
-     * Lista todas as consultas
+     * GET /api/v1/consultas?limit=...&after=...
+     * Lista as consultas em páginas, da mais recente para a mais antiga
      *
-     * @return ResponseEntity com lista de consultas
+     * @param limit Quantidade máxima de consultas na página
+     * @param after Cursor retornado em proximoCursor na página anterior
+     * @return ResponseEntity com a página de consultas, ou 304 se If-None-Match ainda vale
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> listarConsultas() {
+    public ResponseEntity<RespostaApi<?>> listarConsultas(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            WebRequest requisicao) {
         try {
-            logger.info("Listando todas as consultas");
+            logger.info("Listando consultas (limit {}, after {})", limit, after);
 
-            List<Consulta> consultas = sistemaClinicaService.listarConsultas();
+            // Parâmetros inválidos dão 400 mesmo com If-None-Match válido
+            sistemaClinicaService.validarPaginaConsultas(limit, after);
 
-            logger.info("Total de consultas: {}", consultas.size());
+            // ETag lido antes da consulta ao banco (ver VersoesTabelas)
+            if (requisicao.checkNotModified(versoesTabelas.etag(VersoesTabelas.Tabela.CONSULTAS))) {
+                return null;
+            }
 
-            return ResponseEntity.ok(construirRespostaSucesso(
-                    "Consultas listadas com sucesso",
-                    Map.of(
-                            "total", consultas.size(),
-                            "consultas", consultas
-                    ),
-                    200
-            ));
+            Pagina<Consulta> pagina = sistemaClinicaService.listarConsultasPaginadas(limit, after);
+
+            logger.info("Total de consultas na página: {}", pagina.getItens().size());
+
+            PaginaConsultas dados = new PaginaConsultas(
+                    pagina.getItens().size(),
+                    pagina.getItens(),
+                    pagina.getLimite(),
+                    pagina.getProximoCursor()
+            );
+
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(construirRespostaSucesso(
+                            "Consultas listadas com sucesso",
+                            dados,
+                            200
+                    ));
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Erro na paginação de consultas: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(construirRespostaErro(e.getMessage(), 400));
 
         } catch (Exception e) {
             logger.error("Erro ao listar consultas: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao listar consultas",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao listar consultas", e);
         }
     }
 
+    /**
+     * GET /api/v1/consultas (Accept: application/x-ndjson)
+     * Exporta todas as consultas em NDJSON, uma por linha, sem montar a lista em memória
+     *
+     * @return ResponseEntity com o corpo escrito em streaming
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarConsultas() {
+        logger.info("Exportando consultas em NDJSON");
+        StreamingResponseBody corpo = escritorNdjson.escrever(Consulta.class, sistemaClinicaService::exportarConsultas);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
     /**
      * GET /api/v1/consultas/paciente/{pacienteId}
      * Lista consultas de um paciente específico
@@ -161,7 +279,7 @@ public class ConsultaController {
      * @return ResponseEntity com lista de consultas
      */
     @GetMapping("/paciente/{pacienteId}")
-    public ResponseEntity<Map<String, Object>> listarConsultasPaciente(@PathVariable int pacienteId) {
+    public ResponseEntity<RespostaApi<?>> listarConsultasPaciente(@PathVariable int pacienteId) {
         try {
             logger.info("Listando consultas do paciente: {}", pacienteId);
 
@@ -171,11 +289,7 @@ public class ConsultaController {
 
             return ResponseEntity.ok(construirRespostaSucesso(
                     "Consultas do paciente listadas com sucesso",
-                    Map.of(
-                            "pacienteId", pacienteId,
-                            "total", consultas.size(),
-                            "consultas", consultas
-                    ),
+                    new ConsultasPaciente(pacienteId, consultas.size(), consultas),
                     200
             ));
 
@@ -187,12 +301,7 @@ public class ConsultaController {
 
         } catch (Exception e) {
             logger.error("Erro ao listar consultas do paciente: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao listar consultas",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao listar consultas", e);
         }
     }
 
@@ -205,7 +314,7 @@ public class ConsultaController {
      * @return ResponseEntity com lista de consultas
      */
     @GetMapping("/periodo")
-    public ResponseEntity<Map<String, Object>> listarConsultasPorPeriodo(
+    public ResponseEntity<RespostaApi<?>> listarConsultasPorPeriodo(
             @RequestParam String dataInicio,
             @RequestParam String dataFim) {
         try {
@@ -218,12 +327,7 @@ public class ConsultaController {
 
             return ResponseEntity.ok(construirRespostaSucesso(
                     "Consultas do período listadas com sucesso",
-                    Map.of(
-                            "dataInicio", dataInicio,
-                            "dataFim", dataFim,
-                            "total", consultas.size(),
-                            "consultas", consultas
-                    ),
+                    new ConsultasPeriodo(dataInicio, dataFim, consultas.size(), consultas),
                     200
             ));
 
@@ -235,12 +339,7 @@ public class ConsultaController {
 
         } catch (Exception e) {
             logger.error("Erro ao listar por período: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao listar por período",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao listar por período", e);
         }
     }
 
@@ -257,7 +356,7 @@ public class ConsultaController {
      * @return ResponseEntity com confirmação
      */
     @PutMapping("/{id}/remarcar")
-    public ResponseEntity<Map<String, Object>> remarcarConsulta(
+    public ResponseEntity<RespostaApi<?>> remarcarConsulta(
             @PathVariable int id,
             @RequestParam String novaData) {
         try {
@@ -291,12 +390,7 @@ public class ConsultaController {
 
         } catch (Exception e) {
             logger.error("Erro ao remarcar consulta: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao remarcar consulta",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao remarcar consulta", e);
         }
     }
 
@@ -309,7 +403,7 @@ public class ConsultaController {
      * @return ResponseEntity com resultado da verificação
      */
     @GetMapping("/disponibilidade")
-    public ResponseEntity<Map<String, Object>> verificarDisponibilidade(
+    public ResponseEntity<RespostaApi<?>> verificarDisponibilidade(
             @RequestParam int pacienteId,
             @RequestParam String data) {
         try {
@@ -329,14 +423,15 @@ public class ConsultaController {
                     200
             ));
 
+        } catch (IllegalArgumentException e) {
+            logger.warn("Erro ao verificar disponibilidade: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(construirRespostaErro(e.getMessage(), 400));
+
         } catch (Exception e) {
             logger.error("Erro ao verificar disponibilidade: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao verificar disponibilidade",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao verificar disponibilidade", e);
         }
     }
 
@@ -348,7 +443,7 @@ public class ConsultaController {
      * @return ResponseEntity com confirmação
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> cancelarConsulta(@PathVariable int id) {
+    public ResponseEntity<RespostaApi<?>> cancelarConsulta(@PathVariable int id) {
         try {
             logger.info("Cancelando consulta com ID: {}", id);
 
@@ -370,12 +465,7 @@ public class ConsultaController {
 
         } catch (Exception e) {
             logger.error("Erro ao cancelar consulta: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao cancelar consulta",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao cancelar consulta", e);
         }
     }
 
@@ -387,29 +477,30 @@ public class ConsultaController {
      * GET /api/v1/consultas/relatorio
      * Gera relatório de consultas
      *
-     * @return ResponseEntity com relatório
+     * @return ResponseEntity com relatório, ou 304 se If-None-Match ainda vale
      */
     @GetMapping("/relatorio")
-    public ResponseEntity<Map<String, Object>> gerarRelatorio() {
+    public ResponseEntity<RespostaApi<?>> gerarRelatorio(WebRequest requisicao) {
         try {
+            if (requisicao.checkNotModified(versoesTabelas.etag(VersoesTabelas.Tabela.CONSULTAS))) {
+                return null;
+            }
+
             logger.info("Gerando relatório de consultas");
 
             String relatorio = sistemaClinicaService.gerarRelatorioConsultas();
 
-            return ResponseEntity.ok(construirRespostaSucesso(
-                    "Relatório gerado com sucesso",
-                    Map.of("relatorio", relatorio),
-                    200
-            ));
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(construirRespostaSucesso(
+                            "Relatório gerado com sucesso",
+                            Map.of("relatorio", relatorio),
+                            200
+                    ));
 
         } catch (Exception e) {
             logger.error("Erro ao gerar relatório: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao gerar relatório",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao gerar relatório", e);
         }
     }
 
@@ -424,7 +515,7 @@ public class ConsultaController {
      * @return ResponseEntity com status
      */
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> healthCheck() {
+    public ResponseEntity<RespostaApi<?>> healthCheck() {
         logger.info("Health check do ConsultaController");
         return ResponseEntity.ok(construirRespostaSucesso(
                 "ConsultaController está operacional",
@@ -0,0 +1,34 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conversor JSON da aplicação (substitui o padrão do Spring Boot).
+ *
+ * Para o envelope RespostaApi usa um ObjectWriter montado uma única vez, com o serializador
+ * da raiz já resolvido, em vez de criar e configurar um writer novo a cada resposta.
+ * Os demais tipos seguem o caminho normal do MappingJackson2HttpMessageConverter.
+ */
+@Component
+class ConversorJsonRespostas extends MappingJackson2HttpMessageConverter {
+
+    private final ObjectWriter escritorResposta;
+
+    ConversorJsonRespostas(ObjectMapper objectMapper) {
+        super(objectMapper);
+        this.escritorResposta = objectMapper.writerFor(RespostaApi.class);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+        if (javaType != null && javaType.hasRawClass(RespostaApi.class)) {
+            return escritorResposta;
+        }
+        return super.customizeWriter(writer, javaType, contentType);
+    }
+}
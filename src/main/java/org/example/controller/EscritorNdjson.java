@@ -0,0 +1,69 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.DataSourceRoteado;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Escreve registros como NDJSON (um objeto JSON por linha) diretamente
+ * no corpo da resposta, à medida que são lidos do banco.
+ */
+@Component
+class EscritorNdjson {
+
+    private static final int LINHAS_POR_FLUSH = 100;
+
+    private final ObjectWriter escritor;
+    // Um writer por tipo de item, com o serializador já resolvido
+    private final Map<Class<?>, ObjectWriter> escritoresPorTipo = new ConcurrentHashMap<>();
+
+    EscritorNdjson(ObjectMapper objectMapper) {
+        this.escritor = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Cria o corpo da resposta a partir de uma fonte que entrega os itens a um consumidor.
+     * A primeira linha é enviada assim que lida; depois o buffer é descarregado a cada
+     * LINHAS_POR_FLUSH linhas.
+     */
+    <T> StreamingResponseBody escrever(Class<T> tipo, Consumer<Consumer<T>> fonte) {
+        ObjectWriter escritorDoTipo = escritoresPorTipo.computeIfAbsent(tipo, escritor::forType);
+        // O corpo é escrito em outra thread: leva o roteamento da requisição (JanelaLeituraPropria)
+        Consumer<Consumer<T>> fonteRoteada = DataSourceRoteado.comRoteamento(fonte);
+        return saida -> {
+            int[] linhas = {0};
+            try (SequenceWriter sequencia = escritorDoTipo.writeValues(saida)) {
+                fonteRoteada.accept(item -> {
+                    try {
+                        sequencia.write(item);
+                        if (++linhas[0] % LINHAS_POR_FLUSH == 1) {
+                            sequencia.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (linhas[0] > 0) {
+                saida.write('\n');
+            }
+            saida.flush();
+        };
+    }
+}
@@ -1,17 +1,32 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.BancoIndisponivelException;
+import org.example.model.Pagina;
 import org.example.model.Paciente;
+import org.example.model.ResultadoImportacao;
+import org.example.service.CarregadorPerfilPaciente;
+import org.example.service.ImportadorPacientes;
 import org.example.service.SistemaClinicaService;
+import org.example.service.VersoesTabelas;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller REST para gerenciar operações com Pacientes.
@@ -32,6 +47,26 @@ public class PacienteController {
     @Autowired
     private SistemaClinicaService sistemaClinicaService;
 
+    @Autowired
+    private EscritorNdjson escritorNdjson;
+
+    @Autowired
+    private ImportadorPacientes importadorPacientes;
+
+    @Autowired
+    private CarregadorPerfilPaciente carregadorPerfilPaciente;
+
+    @Autowired
+    private VersoesTabelas versoesTabelas;
+
+    // ========================================
+    // CORPOS DAS RESPOSTAS
+    // ========================================
+
+    public record PaginaPacientes(int total, List<Paciente> pacientes, int limite,
+                                  @JsonInclude(JsonInclude.Include.ALWAYS) String proximoCursor) {
+    }
+
     // ========================================
     // MÉTODOS AUXILIARES
     // ========================================
@@ -39,26 +74,32 @@ public class PacienteController {
     /**
      * Constrói uma resposta padronizada de sucesso
      */
-    private Map<String, Object> construirRespostaSucesso(String mensagem, Object dados, int status) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("sucesso", true);
-        response.put("mensagem", mensagem);
-        response.put("dados", dados);
-        response.put("status", status);
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    private <T> RespostaApi<T> construirRespostaSucesso(String mensagem, T dados, int status) {
+        return RespostaApi.sucesso(mensagem, dados, status);
     }
 
     /**
      * Constrói uma resposta padronizada de erro
      */
-    private Map<String, Object> construirRespostaErro(String mensagem, int status) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("sucesso", false);
-        response.put("mensagem", mensagem);
-        response.put("status", status);
-        response.put("timestamp", System.currentTimeMillis());
-        return response;
+    private RespostaApi<Void> construirRespostaErro(String mensagem, int status) {
+        return RespostaApi.erro(mensagem, status);
+    }
+
+    /**
+     * Resposta para falhas inesperadas: 503 com Retry-After se o banco estiver com o
+     * circuito aberto, 500 nos demais casos
+     */
+    private ResponseEntity<RespostaApi<?>> construirRespostaFalha(String mensagem, Exception e) {
+        BancoIndisponivelException indisponivel = BancoIndisponivelException.naCadeia(e);
+        if (indisponivel != null) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(indisponivel.getSegundosParaNovaTentativa()))
+                    .body(construirRespostaErro(indisponivel.getMessage(), 503));
+        }
+        return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(construirRespostaErro(mensagem, 500));
     }
 
     // ========================================
@@ -73,7 +114,7 @@ public class PacienteController {
      * @return ResponseEntity com dados do paciente criado
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> criarPaciente(@RequestBody Paciente paciente) {
+    public ResponseEntity<RespostaApi<?>> criarPaciente(@RequestBody Paciente paciente) {
         try {
             logger.info("Recebendo requisição para criar paciente: {}", paciente.getNome());
 
@@ -107,12 +148,51 @@ public class PacienteController {
 
         } catch (Exception e) {
             logger.error("Erro inesperado ao criar paciente: {}", e.getMessage(), e);
+            return construirRespostaFalha("Erro ao criar paciente", e);
+        }
+    }
+
+    /**
+     * POST /api/v1/pacientes/importacao
+     * Importa pacientes em massa a partir de um arquivo CSV (campo "arquivo")
+     *
+     * @param arquivo CSV com cabeçalho e uma linha por paciente
+     * @return ResponseEntity com totais importados e linhas rejeitadas
+     */
+    @PostMapping(value = "/importacao", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<RespostaApi<?>> importarPacientes(@RequestParam("arquivo") MultipartFile arquivo) {
+        try {
+            logger.info("Recebendo importação de pacientes: {} ({} bytes)",
+                    arquivo.getOriginalFilename(), arquivo.getSize());
+
+            if (arquivo.isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(construirRespostaErro("Arquivo CSV vazio", 400));
+            }
+
+            ResultadoImportacao resultado;
+            try (InputStream csv = arquivo.getInputStream()) {
+                resultado = importadorPacientes.importar(csv);
+            }
+
+            logger.info("Importação concluída: {}", resultado);
+
+            return ResponseEntity.ok(construirRespostaSucesso(
+                    "Importação de pacientes concluída",
+                    resultado,
+                    200
+            ));
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Importação rejeitada: {}", e.getMessage());
             return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao criar paciente: " + e.getMessage(),
-                            500
-                    ));
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(construirRespostaErro(e.getMessage(), 400));
+
+        } catch (Exception e) {
+            logger.error("Erro ao importar pacientes: {}", e.getMessage(), e);
+            return construirRespostaFalha("Erro ao importar pacientes", e);
         }
     }
 
@@ -121,40 +201,86 @@ public class PacienteController {
     // ========================================
 
     /**
-     * GET /api/v1/pacientes
-     * Lista todos os pacientes cadastrados
+     * GET /api/v1/pacientes?limit=...&after=...&include=contatos,enderecos
+     * Lista os pacientes cadastrados em páginas, em ordem alfabética
      *
-     * @return ResponseEntity com lista de pacientes
+     * @param limit Quantidade máxima de pacientes na página
+     * @param after Cursor retornado em proximoCursor na página anterior
+     * @param include Coleções a carregar junto (contatos, enderecos), separadas por vírgula
+     * @return ResponseEntity com a página de pacientes, ou 304 se If-None-Match ainda vale
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> listarPacientes() {
+    public ResponseEntity<RespostaApi<?>> listarPacientes(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String include,
+            WebRequest requisicao) {
         try {
-            logger.info("Buscando lista de pacientes");
+            logger.info("Buscando lista de pacientes (limit {}, after {}, include {})", limit, after, include);
+
+            Set<String> incluir = new HashSet<>();
+            if (include != null) {
+                for (String item : include.split(",")) {
+                    if (!item.isBlank()) {
+                        incluir.add(item.trim().toLowerCase());
+                    }
+                }
+            }
 
-            List<Paciente> pacientes = sistemaClinicaService.listarPacientes();
+            // Parâmetros inválidos dão 400 mesmo com If-None-Match válido
+            sistemaClinicaService.validarPaginaPacientes(limit, after, incluir);
 
-            logger.info("Total de pacientes encontrados: {}", pacientes.size());
+            // ETag lido antes da consulta ao banco (ver VersoesTabelas)
+            if (requisicao.checkNotModified(versoesTabelas.etag(VersoesTabelas.Tabela.PACIENTES))) {
+                return null;
+            }
 
-            return ResponseEntity.ok(construirRespostaSucesso(
-                    "Pacientes listados com sucesso",
-                    Map.of(
-                            "total", pacientes.size(),
-                            "pacientes", pacientes
-                    ),
-                    200
-            ));
+            Pagina<Paciente> pagina = sistemaClinicaService.listarPacientesPaginados(limit, after, incluir);
+
+            logger.info("Total de pacientes na página: {}", pagina.getItens().size());
+
+            PaginaPacientes dados = new PaginaPacientes(
+                    pagina.getItens().size(),
+                    pagina.getItens(),
+                    pagina.getLimite(),
+                    pagina.getProximoCursor()
+            );
+
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(construirRespostaSucesso(
+                            "Pacientes listados com sucesso",
+                            dados,
+                            200
+                    ));
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Erro na paginação de pacientes: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(construirRespostaErro(e.getMessage(), 400));
 
         } catch (Exception e) {
             logger.error("Erro ao listar pacientes: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao listar pacientes",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao listar pacientes", e);
         }
     }
 
+    /**
+     * GET /api/v1/pacientes (Accept: application/x-ndjson)
+     * Exporta todas as pacientes em NDJSON, uma por linha, sem montar a lista em memória
+     *
+     * @return ResponseEntity com o corpo escrito em streaming
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarPacientes() {
+        logger.info("Exportando pacientes em NDJSON");
+        StreamingResponseBody corpo = escritorNdjson.escrever(Paciente.class, sistemaClinicaService::exportarPacientes);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
     /**
      * GET /api/v1/pacientes/{id}
      * Busca um paciente específico por ID
@@ -163,7 +289,7 @@ public class PacienteController {
      * @return ResponseEntity com dados do paciente
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> buscarPaciente(@PathVariable int id) {
+    public ResponseEntity<RespostaApi<?>> buscarPaciente(@PathVariable int id) {
         try {
             logger.info("Buscando paciente com ID: {}", id);
 
@@ -185,12 +311,45 @@ public class PacienteController {
 
         } catch (Exception e) {
             logger.error("Erro ao buscar paciente: {}", e.getMessage(), e);
+            return construirRespostaFalha("Erro ao buscar paciente", e);
+        }
+    }
+
+    /**
+     * GET /api/v1/pacientes/{id}/completo
+     * Busca o paciente com contatos, endereços e planos de saúde carregados em paralelo
+     *
+     * @param id ID do paciente
+     * @return ResponseEntity com o perfil completo do paciente
+     */
+    @GetMapping("/{id}/completo")
+    public ResponseEntity<RespostaApi<?>> buscarPerfilCompleto(@PathVariable int id) {
+        try {
+            logger.info("Buscando perfil completo do paciente com ID: {}", id);
+
+            Paciente paciente = carregadorPerfilPaciente.carregar(id);
+
+            return ResponseEntity.ok(construirRespostaSucesso(
+                    "Perfil do paciente carregado",
+                    paciente,
+                    200
+            ));
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Paciente não encontrado. ID: {}", id);
             return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao buscar paciente",
-                            500
-                    ));
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(construirRespostaErro(e.getMessage(), 404));
+
+        } catch (IllegalStateException e) {
+            logger.warn("Perfil do paciente {} indisponível: {}", id, e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(construirRespostaErro(e.getMessage(), 503));
+
+        } catch (Exception e) {
+            logger.error("Erro ao buscar perfil do paciente: {}", e.getMessage(), e);
+            return construirRespostaFalha("Erro ao buscar perfil do paciente", e);
         }
     }
 
@@ -202,7 +361,7 @@ public class PacienteController {
      * @return ResponseEntity com dados do paciente
      */
     @GetMapping("/buscar/cpf")
-    public ResponseEntity<Map<String, Object>> buscarPorCPF(@RequestParam String cpf) {
+    public ResponseEntity<RespostaApi<?>> buscarPorCPF(@RequestParam String cpf) {
         try {
             logger.info("Buscando paciente por CPF: {}", cpf);
 
@@ -224,12 +383,7 @@ public class PacienteController {
 
         } catch (Exception e) {
             logger.error("Erro ao buscar por CPF: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao buscar por CPF",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao buscar por CPF", e);
         }
     }
 
@@ -248,7 +402,7 @@ public class PacienteController {
      * @return ResponseEntity com dados atualizados
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> atualizarPaciente(
+    public ResponseEntity<RespostaApi<?>> atualizarPaciente(
             @PathVariable int id,
             @RequestBody Paciente paciente) {
         try {
@@ -284,12 +438,7 @@ public class PacienteController {
 
         } catch (Exception e) {
             logger.error("Erro ao atualizar paciente: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao atualizar paciente",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao atualizar paciente", e);
         }
     }
 
@@ -305,7 +454,7 @@ public class PacienteController {
      * @return ResponseEntity com confirmação
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deletarPaciente(@PathVariable int id) {
+    public ResponseEntity<RespostaApi<?>> deletarPaciente(@PathVariable int id) {
         try {
             logger.info("Deletando paciente com ID: {}", id);
 
@@ -327,12 +476,7 @@ public class PacienteController {
 
         } catch (Exception e) {
             logger.error("Erro ao deletar paciente: {}", e.getMessage(), e);
-            return ResponseEntity
-                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(construirRespostaErro(
-                            "Erro ao deletar paciente",
-                            500
-                    ));
+            return construirRespostaFalha("Erro ao deletar paciente", e);
         }
     }
 
@@ -347,7 +491,7 @@ public class PacienteController {
      * @return ResponseEntity com status
      */
     @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> healthCheck() {
+    public ResponseEntity<RespostaApi<?>> healthCheck() {
         logger.info("Health check do PacienteController");
         return ResponseEntity.ok(construirRespostaSucesso(
                 "PacienteController está operacional",
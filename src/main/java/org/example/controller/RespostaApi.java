@@ -0,0 +1,25 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Envelope padrão das respostas da API.
+ *
+ * Serializado com o ObjectWriter pré-montado do ConversorJsonRespostas; "dados" é omitido
+ * quando nulo, como nas respostas de erro.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RespostaApi<T>(boolean sucesso, String mensagem, T dados, int status, long timestamp) {
+
+    public static <T> RespostaApi<T> sucesso(String mensagem, T dados, int status) {
+        return new RespostaApi<>(true, mensagem, dados, status, System.currentTimeMillis());
+    }
+
+    public static <T> RespostaApi<T> erro(String mensagem, T dados, int status) {
+        return new RespostaApi<>(false, mensagem, dados, status, System.currentTimeMillis());
+    }
+
+    public static RespostaApi<Void> erro(String mensagem, int status) {
+        return erro(mensagem, null, status);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Corpo de requisição que o Jackson não consegue ler (JSON malformado, data fora do formato
+ * ISO, status desconhecido) falha antes de entrar nos controllers. Sem este tratador o
+ * cliente receberia o 400 padrão do Spring em vez do envelope RespostaApi.
+ */
+@RestControllerAdvice
+public class TratadorCorpoInvalido {
+
+    private static final Logger logger = LoggerFactory.getLogger(TratadorCorpoInvalido.class);
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<RespostaApi<Void>> tratarCorpoInvalido(HttpMessageNotReadableException e) {
+        String mensagem = descrever(e);
+        logger.warn("Corpo da requisição inválido: {}", mensagem);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(RespostaApi.erro(mensagem, 400));
+    }
+
+    /**
+     * Usa a mensagem de validação do modelo quando houver (ex.: StatusConsulta.deValor);
+     * senão aponta o campo que não pôde ser convertido.
+     */
+    private static String descrever(HttpMessageNotReadableException e) {
+        String campo = null;
+        for (Throwable causa = e.getCause(); causa != null; causa = causa.getCause()) {
+            if (causa instanceof IllegalArgumentException) {
+                return causa.getMessage();
+            }
+            if (campo == null && causa instanceof JsonMappingException mapeamento
+                    && !mapeamento.getPath().isEmpty()) {
+                campo = mapeamento.getPath().get(mapeamento.getPath().size() - 1).getFieldName();
+            }
+        }
+        return campo != null ? "Valor inválido para o campo " + campo : "Corpo da requisição inválido";
+    }
+}
@@ -2,25 +2,54 @@ package org.example.dao;
 
 import org.example.ConexaoBD;
 import org.example.model.Consulta;
+import org.example.model.Pagina;
+import org.example.model.StatusConsulta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+@Repository
 public class ConsultaDAO {
 
-    public void agendarConsulta(Consulta consulta) {
+    private static final Logger logger = LoggerFactory.getLogger(ConsultaDAO.class);
+
+    private static final List<StatusConsulta> STATUS_ATIVOS =
+            Arrays.stream(StatusConsulta.values()).filter(StatusConsulta::ativa).toList();
+
+    private final ConexaoBD conexaoBD;
+    // Valores de status desconhecidos já avisados no log
+    private final Set<String> statusDesconhecidos = ConcurrentHashMap.newKeySet();
+
+    public ConsultaDAO(ConexaoBD conexaoBD) {
+        this.conexaoBD = conexaoBD;
+    }
+
+    /**
+     * Insere a consulta. Se o banco recusar por já haver consulta ativa do paciente na
+     * mesma data (restrição UK_CONSULTA_ATIVA), retorna false em vez de lançar erro.
+     */
+    public boolean agendarConsulta(Consulta consulta) {
         String sql = "INSERT INTO consultas (paciente_id, data_consulta, status, motivo, observacoes) " +
-                "VALUES (?, TO_DATE(?, 'YYYY-MM-DD'), ?, ?, ?)";
+                "VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id"})) {
 
-            stmt.setInt(1, consulta.getPacienteId());
-            stmt.setString(2, consulta.getDataPrevista());
-            stmt.setString(3, consulta.getStatus());
-            stmt.setString(4, consulta.getMotivo());
-            stmt.setString(5, consulta.getObservacoes());
-
+            preencherInsercao(stmt, consulta);
             stmt.executeUpdate();
 
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
@@ -28,17 +57,113 @@ public class ConsultaDAO {
                     consulta.setId(generatedKeys.getInt(1));
                 }
             }
+            return true;
         } catch (SQLException e) {
+            if (violaConsultaAtiva(e)) {
+                return false;
+            }
             throw new RuntimeException("Erro ao agendar consulta: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Insere as consultas dentro de uma transação e atribui a cada uma o ID gerado.
+     *
+     * O driver Oracle não devolve chaves geradas para executeBatch (getGeneratedKeys só
+     * funciona em execuções individuais), então no Oracle cada consulta é um executeUpdate
+     * do mesmo PreparedStatement, com o ID lido logo em seguida. Nos demais bancos (H2 do
+     * perfil local) vai um único executeBatch e os IDs vêm na ordem da lista; se vierem
+     * menos IDs que consultas, o lote é desfeito e a chamada falha.
+     *
+     * @return false se alguma consulta violar UK_CONSULTA_ATIVA (paciente já com consulta
+     *         ativa na data); nesse caso nada do lote é gravado
+     */
+    public boolean agendarConsultasEmLote(List<Consulta> consultas) {
+        String sql = "INSERT INTO consultas (paciente_id, data_consulta, status, motivo, observacoes) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        try (Connection conn = conexaoBD.getConnection()) {
+            boolean autoCommitOriginal = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id"})) {
+                if (chavesGeradasEmLote(conn)) {
+                    inserirComExecuteBatch(stmt, consultas);
+                } else {
+                    inserirUmaAUma(stmt, consultas);
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (violaConsultaAtiva(e)) {
+                    return false;
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommitOriginal);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao agendar consultas em lote: " + e.getMessage(), e);
+        }
+    }
+
+    private void inserirComExecuteBatch(PreparedStatement stmt, List<Consulta> consultas) throws SQLException {
+        for (Consulta consulta : consultas) {
+            preencherInsercao(stmt, consulta);
+            stmt.addBatch();
+        }
+
+        stmt.executeBatch();
+
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            int indice = 0;
+            while (generatedKeys.next() && indice < consultas.size()) {
+                consultas.get(indice++).setId(generatedKeys.getInt(1));
+            }
+            // Sem um ID por consulta não há como devolver o lote; desfaz em vez de responder com id 0
+            if (indice != consultas.size()) {
+                throw new SQLException("Banco devolveu " + indice + " IDs gerados para " +
+                        consultas.size() + " consultas do lote");
+            }
+        }
+    }
+
+    private void inserirUmaAUma(PreparedStatement stmt, List<Consulta> consultas) throws SQLException {
+        for (Consulta consulta : consultas) {
+            preencherInsercao(stmt, consulta);
+            stmt.executeUpdate();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Banco não devolveu o ID gerado de uma consulta do lote");
+                }
+                consulta.setId(generatedKeys.getInt(1));
+            }
+        }
+    }
+
+    private void preencherInsercao(PreparedStatement stmt, Consulta consulta) throws SQLException {
+        stmt.setInt(1, consulta.getPacienteId());
+        stmt.setObject(2, consulta.getDataPrevista());
+        stmt.setString(3, valorStatus(consulta.getStatus()));
+        stmt.setString(4, consulta.getMotivo());
+        stmt.setString(5, consulta.getObservacoes());
+    }
+
+    /**
+     * O driver Oracle não suporta getGeneratedKeys junto com executeBatch
+     */
+    private static boolean chavesGeradasEmLote(Connection conn) throws SQLException {
+        return !conn.getMetaData().getDatabaseProductName().toLowerCase().contains("oracle");
+    }
+
+    @SomenteLeitura
     public List<Consulta> listarConsultas() {
         List<Consulta> consultas = new ArrayList<>();
         String sql = "SELECT id, paciente_id, data_consulta, status, motivo, observacoes " +
                 "FROM consultas ORDER BY data_consulta DESC";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -51,12 +176,92 @@ public class ConsultaDAO {
         return consultas;
     }
 
+    /**
+     * Confere o cursor de paginação sem acessar o banco. É estático para rodar fora do proxy
+     * do @Repository, que traduziria a IllegalArgumentException em erro de acesso a dados.
+     *
+     * @throws IllegalArgumentException se o cursor não foi gerado por listarConsultasPagina
+     */
+    public static void validarCursor(String cursor) {
+        decodificarCursor(cursor);
+    }
+
+    /**
+     * Lista uma página de consultas ordenada por (data_consulta, id) decrescente.
+     * O cursor é o valor retornado na página anterior; nulo para a primeira página.
+     * O serviço chama dentro de VersoesTabelas.lerVersionado: a página sai com ETag.
+     */
+    @SomenteLeitura
+    public Pagina<Consulta> listarConsultasPagina(String cursor, int limite) {
+        List<Consulta> consultas = new ArrayList<>();
+        String colunas = "SELECT id, paciente_id, data_consulta, status, motivo, observacoes FROM consultas ";
+        String ordenacao = "ORDER BY data_consulta DESC, id DESC FETCH FIRST ? ROWS ONLY";
+        String sql = cursor == null
+                ? colunas + ordenacao
+                : colunas + "WHERE data_consulta < ? OR (data_consulta = ? AND id < ?) " + ordenacao;
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            if (cursor != null) {
+                ChaveCursor chave = decodificarCursor(cursor);
+                stmt.setObject(indice++, chave.data());
+                stmt.setObject(indice++, chave.data());
+                stmt.setInt(indice++, chave.id());
+            }
+            // Uma linha extra indica se existe próxima página
+            stmt.setInt(indice, limite + 1);
+            stmt.setFetchSize(limite + 1);
+
+            String proximoCursor = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (consultas.size() == limite) {
+                        Consulta ultima = consultas.get(consultas.size() - 1);
+                        proximoCursor = CursorPaginacao.codificar(
+                                ultima.getDataPrevista().toString(), String.valueOf(ultima.getId()));
+                        break;
+                    }
+                    consultas.add(mapearResultSetParaConsulta(rs));
+                }
+            }
+            return new Pagina<>(consultas, limite, proximoCursor);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar consultas: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Percorre todas as consultas entregando uma linha por vez ao consumidor,
+     * sem acumular o resultado em memória.
+     */
+    @SomenteLeitura
+    public void percorrerConsultas(int tamanhoFetch, Consumer<Consulta> consumidor) {
+        String sql = "SELECT id, paciente_id, data_consulta, status, motivo, observacoes " +
+                "FROM consultas ORDER BY data_consulta DESC, id DESC";
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setFetchSize(tamanhoFetch);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapearResultSetParaConsulta(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao percorrer consultas: " + e.getMessage(), e);
+        }
+    }
+
+    @SomenteLeitura
     public List<Consulta> listarConsultasPorPaciente(int pacienteId) {
         List<Consulta> consultas = new ArrayList<>();
         String sql = "SELECT id, paciente_id, data_consulta, status, motivo, observacoes " +
                 "FROM consultas WHERE paciente_id = ? ORDER BY data_consulta DESC";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, pacienteId);
@@ -71,11 +276,89 @@ public class ConsultaDAO {
         return consultas;
     }
 
+    /**
+     * Verifica se o paciente já tem consulta agendada ou confirmada na data,
+     * sem trazer as consultas para a aplicação
+     */
+    public boolean existeConsultaAtivaNaData(int pacienteId, LocalDate data) {
+        String sql = "SELECT 1 FROM consultas WHERE paciente_id = ? " +
+                "AND data_consulta = ? " +
+                "AND status IN ('agendada', 'confirmada') FETCH FIRST 1 ROWS ONLY";
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, pacienteId);
+            stmt.setObject(2, data);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar consultas na data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Entre os pares (paciente, data) das consultas recebidas, devolve os que já têm consulta
+     * agendada ou confirmada gravada, no formato "pacienteId|data". Faz uma consulta IN por
+     * bloco de pacientes, restrita ao intervalo de datas das consultas.
+     */
+    public Set<String> listarDiasOcupados(List<Consulta> consultas) {
+        Set<String> pedidos = new HashSet<>();
+        Set<Integer> pacientes = new LinkedHashSet<>();
+        LocalDate inicio = null;
+        LocalDate fim = null;
+        for (Consulta consulta : consultas) {
+            LocalDate data = consulta.getDataPrevista();
+            pedidos.add(consulta.getPacienteId() + "|" + data);
+            pacientes.add(consulta.getPacienteId());
+            inicio = inicio == null || data.isBefore(inicio) ? data : inicio;
+            fim = fim == null || data.isAfter(fim) ? data : fim;
+        }
+
+        Set<String> ocupados = new HashSet<>();
+        if (pacientes.isEmpty()) {
+            return ocupados;
+        }
+
+        String sqlAteIn = "SELECT paciente_id, data_consulta FROM consultas " +
+                "WHERE status IN ('agendada', 'confirmada') " +
+                "AND data_consulta BETWEEN ? AND ? " +
+                "AND paciente_id IN (";
+
+        try (Connection conn = conexaoBD.getConnection()) {
+            for (List<Integer> bloco : ListaIn.dividir(new ArrayList<>(pacientes), ListaIn.TAMANHO_MAXIMO)) {
+                String sql = sqlAteIn + ListaIn.marcadores(bloco.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int indice = 1;
+                    stmt.setObject(indice++, inicio);
+                    stmt.setObject(indice++, fim);
+                    for (int pacienteId : bloco) {
+                        stmt.setInt(indice++, pacienteId);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String chave = rs.getInt("paciente_id") + "|" +
+                                    rs.getObject("data_consulta", LocalDate.class);
+                            if (pedidos.contains(chave)) {
+                                ocupados.add(chave);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao verificar consultas nas datas: " + e.getMessage(), e);
+        }
+        return ocupados;
+    }
+
+    @SomenteLeitura
     public Consulta buscarConsultaPorId(int id) {
         String sql = "SELECT id, paciente_id, data_consulta, status, motivo, observacoes " +
                 "FROM consultas WHERE id = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
@@ -91,15 +374,15 @@ public class ConsultaDAO {
     }
 
     public void atualizarConsulta(Consulta consulta) {
-        String sql = "UPDATE consultas SET paciente_id = ?, data_consulta = TO_DATE(?, 'YYYY-MM-DD'), " +
+        String sql = "UPDATE consultas SET paciente_id = ?, data_consulta = ?, " +
                 "status = ?, motivo = ?, observacoes = ? WHERE id = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, consulta.getPacienteId());
-            stmt.setString(2, consulta.getDataPrevista());
-            stmt.setString(3, consulta.getStatus());
+            stmt.setObject(2, consulta.getDataPrevista());
+            stmt.setString(3, valorStatus(consulta.getStatus()));
             stmt.setString(4, consulta.getMotivo());
             stmt.setString(5, consulta.getObservacoes());
             stmt.setInt(6, consulta.getId());
@@ -110,21 +393,64 @@ public class ConsultaDAO {
         }
     }
 
-    public void cancelarConsulta(int id) {
-        String sql = "UPDATE consultas SET status = 'cancelada' WHERE id = ?";
-        try (Connection conn = ConexaoBD.getConnection();
+    /**
+     * Cancela a consulta se ela estiver ativa e com data posterior a dataLimite, em uma
+     * única ida ao banco. O UPDATE condicional vai em lote com um item por status ativo;
+     * a contagem de linhas de cada item indica qual era o status anterior.
+     *
+     * @return o status anterior, ou null se a consulta não atendeu às condições
+     */
+    public StatusConsulta cancelarConsulta(int id, LocalDate dataLimite) {
+        String sql = "UPDATE consultas SET status = 'cancelada' " +
+                "WHERE id = ? AND status = ? AND data_consulta > ?";
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+            for (StatusConsulta status : STATUS_ATIVOS) {
+                stmt.setInt(1, id);
+                stmt.setString(2, status.getValor());
+                stmt.setObject(3, dataLimite);
+                stmt.addBatch();
+            }
+
+            int[] linhas = stmt.executeBatch();
+            for (int i = 0; i < linhas.length; i++) {
+                if (linhas[i] > 0) {
+                    return STATUS_ATIVOS.get(i);
+                }
+            }
+            return null;
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao cancelar consulta: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Muda a data da consulta apenas se ela ainda estiver ativa e o paciente não tiver
+     * outra consulta ativa na nova data, sem leitura prévia
+     *
+     * @return false se a consulta não existe, não pode mais ser remarcada ou a data está ocupada
+     */
+    public boolean remarcarConsulta(int id, LocalDate novaData) {
+        String sql = "UPDATE consultas c SET data_consulta = ? " +
+                "WHERE id = ? AND status IN ('agendada', 'confirmada') " +
+                "AND NOT EXISTS (SELECT 1 FROM consultas o WHERE o.paciente_id = c.paciente_id " +
+                "AND o.data_consulta = ? AND o.status IN ('agendada', 'confirmada') AND o.id <> c.id)";
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setObject(1, novaData);
+            stmt.setInt(2, id);
+            stmt.setObject(3, novaData);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao remarcar consulta: " + e.getMessage(), e);
+        }
+    }
+
     public void deletarConsulta(int id) {
         String sql = "DELETE FROM consultas WHERE id = ?";
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, id);
@@ -134,17 +460,18 @@ public class ConsultaDAO {
         }
     }
 
-    public List<Consulta> listarConsultasPorPeriodo(String dataInicio, String dataFim) {
+    @SomenteLeitura
+    public List<Consulta> listarConsultasPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
         List<Consulta> consultas = new ArrayList<>();
         String sql = "SELECT id, paciente_id, data_consulta, status, motivo, observacoes " +
-                "FROM consultas WHERE data_consulta BETWEEN TO_DATE(?, 'YYYY-MM-DD') AND TO_DATE(?, 'YYYY-MM-DD') " +
+                "FROM consultas WHERE data_consulta BETWEEN ? AND ? " +
                 "ORDER BY data_consulta ASC";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, dataInicio);
-            stmt.setString(2, dataFim);
+            stmt.setObject(1, dataInicio);
+            stmt.setObject(2, dataFim);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     consultas.add(mapearResultSetParaConsulta(rs));
@@ -156,9 +483,10 @@ public class ConsultaDAO {
         return consultas;
     }
 
+    @SomenteLeitura
     public long contarConsultas() {
         String sql = "SELECT COUNT(*) as total FROM consultas";
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -171,12 +499,13 @@ public class ConsultaDAO {
         return 0;
     }
 
-    public long contarConsultasPorStatus(String status) {
+    @SomenteLeitura
+    public long contarConsultasPorStatus(StatusConsulta status) {
         String sql = "SELECT COUNT(*) as total FROM consultas WHERE status = ?";
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, status);
+            stmt.setString(1, valorStatus(status));
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     return rs.getLong("total");
@@ -188,14 +517,70 @@ public class ConsultaDAO {
         return 0;
     }
 
-    private Consulta mapearResultSetParaConsulta(ResultSet rs) throws SQLException {
+    /**
+     * Conta as consultas de cada status em uma única consulta agrupada
+     */
+    public Map<String, Long> contarConsultasAgrupadasPorStatus() {
+        Map<String, Long> totais = new HashMap<>();
+        String sql = "SELECT NVL(status, 'desconhecido') AS status, COUNT(*) AS total " +
+                "FROM consultas GROUP BY NVL(status, 'desconhecido')";
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                totais.put(rs.getString("status"), rs.getLong("total"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao contar consultas por status: " + e.getMessage(), e);
+        }
+        return totais;
+    }
+
+    // Visível no pacote para os benchmarks JMH (módulo benchmark)
+    Consulta mapearResultSetParaConsulta(ResultSet rs) throws SQLException {
         return new Consulta(
                 rs.getInt("id"),
                 rs.getInt("paciente_id"),
-                rs.getString("data_consulta"),
-                rs.getString("status"),
+                rs.getObject("data_consulta", LocalDate.class),
+                converterStatus(rs.getString("status")),
                 rs.getString("motivo"),
                 rs.getString("observacoes")
         );
     }
+
+    /**
+     * Só a violação de UK_CONSULTA_ATIVA significa "data ocupada"; outras restrições são erro.
+     */
+    private static boolean violaConsultaAtiva(SQLException e) {
+        return RestricoesBanco.violou(e, "UK_CONSULTA_ATIVA");
+    }
+
+    private static ChaveCursor decodificarCursor(String cursor) {
+        String[] chave = CursorPaginacao.decodificar(cursor, 2);
+        try {
+            return new ChaveCursor(LocalDate.parse(chave[0]), Integer.parseInt(chave[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+    }
+
+    private record ChaveCursor(LocalDate data, int id) {}
+
+    /**
+     * Status gravado fora dos valores conhecidos (legado, digitação) não derruba a leitura:
+     * a consulta vem sem status, como nos contadores, e o valor é avisado uma vez no log.
+     */
+    private StatusConsulta converterStatus(String valor) {
+        StatusConsulta status = StatusConsulta.deValorOuNulo(valor);
+        if (status == null && valor != null && statusDesconhecidos.add(valor)) {
+            logger.warn("Status de consulta desconhecido no banco: '{}'", valor);
+        }
+        return status;
+    }
+
+    private String valorStatus(StatusConsulta status) {
+        return status != null ? status.getValor() : null;
+    }
 }
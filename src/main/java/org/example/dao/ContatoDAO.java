@@ -2,17 +2,27 @@ package org.example.dao;
 
 import org.example.ConexaoBD;
 import org.example.model.Contato;
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+@Repository
 public class ContatoDAO {
 
+    private final ConexaoBD conexaoBD;
+
+    public ContatoDAO(ConexaoBD conexaoBD) {
+        this.conexaoBD = conexaoBD;
+    }
+
     public void criarContato(Contato contato) {
         String sql = "INSERT INTO RHSTU_CONTATO (ID_CONTATO, ID_PACIENTE, NOME, ENDERECO, " +
                 "NUMERO, TIPO_CTT, STATUS) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, contato.getIdContato());
@@ -29,12 +39,13 @@ public class ContatoDAO {
         }
     }
 
+    @SomenteLeitura
     public List<Contato> listarContatosPorPaciente(String idPaciente) {
         List<Contato> contatos = new ArrayList<>();
         String sql = "SELECT ID_CONTATO, ID_PACIENTE, NOME, ENDERECO, NUMERO, TIPO_CTT, STATUS " +
                 "FROM RHSTU_CONTATO WHERE ID_PACIENTE = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idPaciente);
@@ -49,6 +60,24 @@ public class ContatoDAO {
         return contatos;
     }
 
+    /**
+     * Carrega os registros de vários pacientes com listas IN em blocos,
+     * agrupados por ID_PACIENTE. Pacientes sem registros ficam com lista vazia.
+     * Completa a página de pacientes, lida dentro de VersoesTabelas.lerVersionado.
+     */
+    @SomenteLeitura
+    public Map<String, List<Contato>> listarContatosPorPacientes(List<String> idsPacientes) {
+        String sql = "SELECT ID_CONTATO, ID_PACIENTE, NOME, ENDERECO, NUMERO, TIPO_CTT, STATUS " +
+                "FROM RHSTU_CONTATO WHERE ID_PACIENTE IN (";
+
+        try (Connection conn = conexaoBD.getConnection()) {
+            return ListaIn.carregarAgrupado(conn, sql, idsPacientes, ListaIn.TAMANHO_MAXIMO,
+                    this::mapearResultSetParaContato, Contato::getIdPaciente);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar contatos dos pacientes: " + e.getMessage(), e);
+        }
+    }
+
     private Contato mapearResultSetParaContato(ResultSet rs) throws SQLException {
         return new Contato(
                 rs.getString("ID_CONTATO"),
@@ -0,0 +1,36 @@
+package org.example.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica e decodifica os cursores opacos usados na paginação por chave (keyset).
+ * O cursor guarda os valores das colunas de ordenação da última linha da página.
+ */
+final class CursorPaginacao {
+
+    private static final String SEPARADOR = "\u001F";
+
+    private CursorPaginacao() {}
+
+    static String codificar(String... valores) {
+        String conteudo = String.join(SEPARADOR, valores);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodificar(String cursor, int quantidadeValores) {
+        String conteudo;
+        try {
+            conteudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+
+        String[] valores = conteudo.split(SEPARADOR, -1);
+        if (valores.length != quantidadeValores) {
+            throw new IllegalArgumentException("Cursor de paginação inválido");
+        }
+        return valores;
+    }
+}
@@ -2,17 +2,27 @@ package org.example.dao;
 
 import org.example.ConexaoBD;
 import org.example.model.Endereco;
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+@Repository
 public class EnderecoDAO {
 
+    private final ConexaoBD conexaoBD;
+
+    public EnderecoDAO(ConexaoBD conexaoBD) {
+        this.conexaoBD = conexaoBD;
+    }
+
     public void criarEndereco(Endereco endereco) {
         String sql = "INSERT INTO RHSTU_ENDERECO (ID_PACIENTE, ID_ENDERECO, NOME_RUA, " +
                 "NUMERO, PONTO_REF, CEP, PAIS, ESTADO) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, endereco.getIdPaciente());
@@ -30,12 +40,13 @@ public class EnderecoDAO {
         }
     }
 
+    @SomenteLeitura
     public List<Endereco> listarEnderecosPorPaciente(String idPaciente) {
         List<Endereco> enderecos = new ArrayList<>();
         String sql = "SELECT ID_PACIENTE, ID_ENDERECO, NOME_RUA, NUMERO, PONTO_REF, " +
                 "CEP, PAIS, ESTADO FROM RHSTU_ENDERECO WHERE ID_PACIENTE = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idPaciente);
@@ -50,6 +61,24 @@ public class EnderecoDAO {
         return enderecos;
     }
 
+    /**
+     * Carrega os registros de vários pacientes com listas IN em blocos,
+     * agrupados por ID_PACIENTE. Pacientes sem registros ficam com lista vazia.
+     * Completa a página de pacientes, lida dentro de VersoesTabelas.lerVersionado.
+     */
+    @SomenteLeitura
+    public Map<String, List<Endereco>> listarEnderecosPorPacientes(List<String> idsPacientes) {
+        String sql = "SELECT ID_PACIENTE, ID_ENDERECO, NOME_RUA, NUMERO, PONTO_REF, " +
+                "CEP, PAIS, ESTADO FROM RHSTU_ENDERECO WHERE ID_PACIENTE IN (";
+
+        try (Connection conn = conexaoBD.getConnection()) {
+            return ListaIn.carregarAgrupado(conn, sql, idsPacientes, ListaIn.TAMANHO_MAXIMO,
+                    this::mapearResultSetParaEndereco, Endereco::getIdPaciente);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar endereços dos pacientes: " + e.getMessage(), e);
+        }
+    }
+
     private Endereco mapearResultSetParaEndereco(ResultSet rs) throws SQLException {
         return new Endereco(
                 rs.getString("ID_PACIENTE"),
@@ -0,0 +1,73 @@
+package org.example.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Auxiliares para consultas com listas IN, respeitando o limite de 1000 itens do Oracle.
+ */
+final class ListaIn {
+
+    static final int TAMANHO_MAXIMO = 1000;
+
+    private ListaIn() {}
+
+    @FunctionalInterface
+    interface Mapeador<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    static String marcadores(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    static <T> List<List<T>> dividir(List<T> itens, int tamanhoBloco) {
+        int tamanho = Math.min(tamanhoBloco, TAMANHO_MAXIMO);
+        List<List<T>> blocos = new ArrayList<>();
+        for (int inicio = 0; inicio < itens.size(); inicio += tamanho) {
+            blocos.add(itens.subList(inicio, Math.min(inicio + tamanho, itens.size())));
+        }
+        return blocos;
+    }
+
+    /**
+     * Executa a consulta em blocos de IDs e agrupa as linhas pelo ID a que pertencem.
+     * Todo ID recebido aparece no mapa, com lista vazia se não houver linhas.
+     *
+     * @param sqlAteIn consulta terminando em "... IN (", completada com os marcadores do bloco
+     */
+    static <T> Map<String, List<T>> carregarAgrupado(Connection conn,
+                                                     String sqlAteIn,
+                                                     List<String> ids,
+                                                     int tamanhoBloco,
+                                                     Mapeador<T> mapeador,
+                                                     Function<T, String> idDoItem) throws SQLException {
+        Map<String, List<T>> porId = new HashMap<>();
+        ids.forEach(id -> porId.put(id, new ArrayList<>()));
+
+        for (List<String> bloco : dividir(ids, tamanhoBloco)) {
+            String sql = sqlAteIn + marcadores(bloco.size()) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int indice = 1;
+                for (String id : bloco) {
+                    stmt.setString(indice++, id);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        T item = mapeador.mapear(rs);
+                        porId.computeIfAbsent(idDoItem.apply(item), id -> new ArrayList<>()).add(item);
+                    }
+                }
+            }
+        }
+        return porId;
+    }
+}
@@ -1,20 +1,43 @@
 package org.example.dao;
 
 import org.example.ConexaoBD;
+import org.example.model.Pagina;
 import org.example.model.Paciente;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+@Repository
 public class PacienteDAO {
 
-    public void criarPaciente(Paciente paciente) {
+    private final ConexaoBD conexaoBD;
+
+    public PacienteDAO(ConexaoBD conexaoBD) {
+        this.conexaoBD = conexaoBD;
+    }
+
+    /**
+     * Insere o paciente contando com a restrição única de CPF (UK_PACIENTE_CPF) em vez de
+     * uma consulta prévia: uma única ida ao banco, e dois cadastros simultâneos com o
+     * mesmo CPF não passam ambos.
+     *
+     * @return false se já existe paciente com o CPF
+     * @throws DataIntegrityViolationException se o banco recusar por outra restrição (ID repetido)
+     */
+    public boolean criarPaciente(Paciente paciente) {
         String sql = "INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, " +
                 "TP_SANGUINEO, ALTURA, PESO, RG, IDADE, ESCOLARIDADE) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, paciente.getIdPaciente());
@@ -29,17 +52,68 @@ public class PacienteDAO {
             stmt.setString(10, paciente.getEscolaridade());
 
             stmt.executeUpdate();
+            return true;
         } catch (SQLException e) {
+            if (RestricoesBanco.violou(e, "UK_PACIENTE_CPF")) {
+                return false;
+            }
+            if (e instanceof SQLIntegrityConstraintViolationException
+                    || (e.getSQLState() != null && e.getSQLState().startsWith("23"))) {
+                // ID repetido, campo obrigatório ausente: erro nos dados, não no banco
+                throw new DataIntegrityViolationException("Paciente recusado por restrição do banco: " + e.getMessage(), e);
+            }
             throw new RuntimeException("Erro ao criar paciente: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Insere os pacientes com um único executeBatch dentro de uma transação
+     */
+    public void criarPacientesEmLote(List<Paciente> pacientes) {
+        String sql = "INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, " +
+                "TP_SANGUINEO, ALTURA, PESO, RG, IDADE, ESCOLARIDADE) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = conexaoBD.getConnection()) {
+            boolean autoCommitOriginal = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Paciente paciente : pacientes) {
+                    stmt.setString(1, paciente.getIdPaciente());
+                    stmt.setString(2, paciente.getNome());
+                    stmt.setString(3, paciente.getCpf());
+                    stmt.setObject(4, paciente.getDataNascimento());
+                    stmt.setString(5, paciente.getTpSanguineo());
+                    stmt.setString(6, paciente.getAltura());
+                    stmt.setString(7, paciente.getPeso());
+                    stmt.setString(8, paciente.getRg());
+                    stmt.setInt(9, paciente.getIdade());
+                    stmt.setString(10, paciente.getEscolaridade());
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommitOriginal);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao criar pacientes em lote: " + e.getMessage(), e);
+        }
+    }
+
+    // Chamado pelo CachePacientes dentro de VersoesTabelas.lerVersionado
+    @SomenteLeitura
     public Paciente buscarPacientePorId(String idPaciente) {
         String sql = "SELECT ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, " +
-                "ALTURA, PESO, RG, IDADE, ESCOLARIDADE" +
+                "ALTURA, PESO, RG, IDADE, ESCOLARIDADE " +
                 "FROM RHSTU_PACIENTE WHERE ID_PACIENTE = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idPaciente);
@@ -54,13 +128,14 @@ public class PacienteDAO {
         return null;
     }
 
+    @SomenteLeitura
     public List<Paciente> listarTodosPacientes() {
         List<Paciente> pacientes = new ArrayList<>();
         String sql = "SELECT ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, " +
                 "ALTURA, PESO, RG, IDADE, ESCOLARIDADE " +
                 "FROM RHSTU_PACIENTE ORDER BY NOME";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -73,12 +148,94 @@ public class PacienteDAO {
         return pacientes;
     }
 
+    /**
+     * Confere o cursor de paginação sem acessar o banco. É estático para rodar fora do proxy
+     * do @Repository, que traduziria a IllegalArgumentException em erro de acesso a dados.
+     *
+     * @throws IllegalArgumentException se o cursor não foi gerado por listarPacientesPagina
+     */
+    public static void validarCursor(String cursor) {
+        CursorPaginacao.decodificar(cursor, 2);
+    }
+
+    /**
+     * Lista uma página de pacientes ordenada por (NOME, ID_PACIENTE).
+     * O cursor é o valor retornado na página anterior; nulo para a primeira página.
+     * O serviço chama dentro de VersoesTabelas.lerVersionado: a página sai com ETag.
+     */
+    @SomenteLeitura
+    public Pagina<Paciente> listarPacientesPagina(String cursor, int limite) {
+        List<Paciente> pacientes = new ArrayList<>();
+        String colunas = "SELECT ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, " +
+                "ALTURA, PESO, RG, IDADE, ESCOLARIDADE FROM RHSTU_PACIENTE ";
+        String ordenacao = "ORDER BY NOME, ID_PACIENTE FETCH FIRST ? ROWS ONLY";
+        String sql = cursor == null
+                ? colunas + ordenacao
+                : colunas + "WHERE NOME > ? OR (NOME = ? AND ID_PACIENTE > ?) " + ordenacao;
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            if (cursor != null) {
+                String[] chave = CursorPaginacao.decodificar(cursor, 2);
+                stmt.setString(indice++, chave[0]);
+                stmt.setString(indice++, chave[0]);
+                stmt.setString(indice++, chave[1]);
+            }
+            // Uma linha extra indica se existe próxima página
+            stmt.setInt(indice, limite + 1);
+            stmt.setFetchSize(limite + 1);
+
+            String proximoCursor = null;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (pacientes.size() == limite) {
+                        Paciente ultimo = pacientes.get(pacientes.size() - 1);
+                        proximoCursor = CursorPaginacao.codificar(ultimo.getNome(), ultimo.getIdPaciente());
+                        break;
+                    }
+                    pacientes.add(mapearResultSetParaPaciente(rs));
+                }
+            }
+            return new Pagina<>(pacientes, limite, proximoCursor);
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar pacientes: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Percorre todos os pacientes entregando uma linha por vez ao consumidor,
+     * sem acumular o resultado em memória.
+     */
+    @SomenteLeitura
+    public void percorrerPacientes(int tamanhoFetch, Consumer<Paciente> consumidor) {
+        String sql = "SELECT ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, " +
+                "ALTURA, PESO, RG, IDADE, ESCOLARIDADE " +
+                "FROM RHSTU_PACIENTE ORDER BY NOME, ID_PACIENTE";
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setFetchSize(tamanhoFetch);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumidor.accept(mapearResultSetParaPaciente(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao percorrer pacientes: " + e.getMessage(), e);
+        }
+    }
+
+    // Chamado pelo CachePacientes dentro de VersoesTabelas.lerVersionado
+    @SomenteLeitura
     public Paciente buscarPorCPF(String cpf) {
         String sql = "SELECT ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, " +
                 "ALTURA, PESO, RG, IDADE, ESCOLARIDADE " +
                 "FROM RHSTU_PACIENTE WHERE CPF = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, cpf);
@@ -93,12 +250,72 @@ public class PacienteDAO {
         return null;
     }
 
+    /**
+     * Retorna, entre os CPFs informados, os que já estão cadastrados.
+     * A lista deve respeitar o limite de 1000 itens do IN do Oracle.
+     */
+    public Set<String> buscarCpfsExistentes(Collection<String> cpfs) {
+        Set<String> existentes = new HashSet<>();
+        if (cpfs.isEmpty()) {
+            return existentes;
+        }
+
+        String sql = "SELECT CPF FROM RHSTU_PACIENTE WHERE CPF IN (" + ListaIn.marcadores(cpfs.size()) + ")";
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            for (String cpf : cpfs) {
+                stmt.setString(indice++, cpf);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existentes.add(rs.getString("CPF"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar CPFs existentes: " + e.getMessage(), e);
+        }
+        return existentes;
+    }
+
+    /**
+     * Retorna, entre os IDs informados, os que já estão cadastrados.
+     * A lista deve respeitar o limite de 1000 itens do IN do Oracle.
+     */
+    public Set<String> buscarIdsExistentes(Collection<String> ids) {
+        Set<String> existentes = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existentes;
+        }
+
+        String sql = "SELECT ID_PACIENTE FROM RHSTU_PACIENTE WHERE ID_PACIENTE IN (" + ListaIn.marcadores(ids.size()) + ")";
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int indice = 1;
+            for (String id : ids) {
+                stmt.setString(indice++, id);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existentes.add(rs.getString("ID_PACIENTE"));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao buscar IDs existentes: " + e.getMessage(), e);
+        }
+        return existentes;
+    }
+
     public void atualizarPaciente(Paciente paciente) {
         String sql = "UPDATE RHSTU_PACIENTE SET NOME = ?, CPF = ?, DATA_NASCIMENTO = ?, " +
-                "TP_SANGUINEO = ?, ALTURA = ?, PESO = ?, RG = ?, IDADE = ?, ESCOLARIDADE = ?, " +
+                "TP_SANGUINEO = ?, ALTURA = ?, PESO = ?, RG = ?, IDADE = ?, ESCOLARIDADE = ? " +
                 "WHERE ID_PACIENTE = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, paciente.getNome());
@@ -110,7 +327,7 @@ public class PacienteDAO {
             stmt.setString(7, paciente.getRg());
             stmt.setInt(8, paciente.getIdade());
             stmt.setString(9, paciente.getEscolaridade());
-            stmt.setString(12, paciente.getIdPaciente());
+            stmt.setString(10, paciente.getIdPaciente());
 
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -120,7 +337,7 @@ public class PacienteDAO {
 
     public void deletarPaciente(String idPaciente) {
         String sql = "DELETE FROM RHSTU_PACIENTE WHERE ID_PACIENTE = ?";
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idPaciente);
@@ -130,13 +347,13 @@ public class PacienteDAO {
         }
     }
 
-    private Paciente mapearResultSetParaPaciente(ResultSet rs) throws SQLException {
+    // Visível no pacote para os benchmarks JMH (módulo benchmark)
+    Paciente mapearResultSetParaPaciente(ResultSet rs) throws SQLException {
         Paciente paciente = new Paciente();
         paciente.setIdPaciente(rs.getString("ID_PACIENTE"));
         paciente.setNome(rs.getString("NOME"));
         paciente.setCpf(rs.getString("CPF"));
-        paciente.setDataNascimento(rs.getObject("DATA_NASCIMENTO") != null ?
-                LocalDate.parse(rs.getObject("DATA_NASCIMENTO").toString()) : null);
+        paciente.setDataNascimento(rs.getObject("DATA_NASCIMENTO", LocalDate.class));
         paciente.setTpSanguineo(rs.getString("TP_SANGUINEO"));
         paciente.setAltura(rs.getString("ALTURA"));
         paciente.setPeso(rs.getString("PESO"));
@@ -1,18 +1,28 @@
 package org.example.dao;
 
 import org.example.ConexaoBD;
+import org.example.model.PacientePlanoSaude;
 import org.example.model.PlanoSaude;
+import org.springframework.stereotype.Repository;
+
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
+@Repository
 public class PlanoSaudeDAO {
 
+    private final ConexaoBD conexaoBD;
+
+    public PlanoSaudeDAO(ConexaoBD conexaoBD) {
+        this.conexaoBD = conexaoBD;
+    }
+
     public void criarPlano(PlanoSaude plano) {
         String sql = "INSERT INTO RHSTU_PLANO_SAUDE (ID_PLANO, NOME_FANTASIA, RAZAO_SOCIAL, " +
                 "STATUS, CNPJ) VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, plano.getIdPlano());
@@ -27,11 +37,12 @@ public class PlanoSaudeDAO {
         }
     }
 
+    @SomenteLeitura
     public PlanoSaude buscarPlanoPorId(String idPlano) {
         String sql = "SELECT ID_PLANO, NOME_FANTASIA, RAZAO_SOCIAL, STATUS, CNPJ " +
                 "FROM RHSTU_PLANO_SAUDE WHERE ID_PLANO = ?";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, idPlano);
@@ -46,12 +57,13 @@ public class PlanoSaudeDAO {
         return null;
     }
 
+    @SomenteLeitura
     public List<PlanoSaude> listarTodosPLanos() {
         List<PlanoSaude> planos = new ArrayList<>();
         String sql = "SELECT ID_PLANO, NOME_FANTASIA, RAZAO_SOCIAL, STATUS, CNPJ " +
                 "FROM RHSTU_PLANO_SAUDE";
 
-        try (Connection conn = ConexaoBD.getConnection();
+        try (Connection conn = conexaoBD.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
@@ -64,6 +76,27 @@ public class PlanoSaudeDAO {
         return planos;
     }
 
+    @SomenteLeitura
+    public List<PacientePlanoSaude> listarPlanosPorPaciente(String idPaciente) {
+        List<PacientePlanoSaude> planos = new ArrayList<>();
+        String sql = "SELECT PACIENTE_ID_PACIENTE, PLANO_SAUDE_ID_PLANO, DATA_INICIO, DATA_FIM, DESCRICAO " +
+                "FROM RHSTU_PACIENTE_PLANO_SAUDE WHERE PACIENTE_ID_PACIENTE = ?";
+
+        try (Connection conn = conexaoBD.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, idPaciente);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    planos.add(mapearResultSetParaPacientePlano(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Erro ao listar planos do paciente: " + e.getMessage(), e);
+        }
+        return planos;
+    }
+
     private PlanoSaude mapearResultSetParaPlano(ResultSet rs) throws SQLException {
         return new PlanoSaude(
                 rs.getString("ID_PLANO"),
@@ -73,4 +106,16 @@ public class PlanoSaudeDAO {
                 rs.getInt("CNPJ")
         );
     }
+
+    private PacientePlanoSaude mapearResultSetParaPacientePlano(ResultSet rs) throws SQLException {
+        Date dataInicio = rs.getDate("DATA_INICIO");
+        Date dataFim = rs.getDate("DATA_FIM");
+        return new PacientePlanoSaude(
+                rs.getString("PACIENTE_ID_PACIENTE"),
+                rs.getString("PLANO_SAUDE_ID_PLANO"),
+                dataInicio != null ? dataInicio.toLocalDate() : null,
+                dataFim != null ? dataFim.toLocalDate() : null,
+                rs.getString("DESCRICAO")
+        );
+    }
 }
@@ -0,0 +1,27 @@
+package org.example.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Identificação de restrições violadas pelo nome, para que cada DAO trate só a que
+ * espera (CPF duplicado, data ocupada) e devolva as demais como erro.
+ */
+final class RestricoesBanco {
+
+    private RestricoesBanco() {}
+
+    /**
+     * Em lote o driver pode trazer a causa encadeada em getNextException.
+     */
+    static boolean violou(SQLException e, String restricao) {
+        for (SQLException atual = e; atual != null; atual = atual.getNextException()) {
+            String sqlState = atual.getSQLState();
+            String mensagem = atual.getMessage();
+            if (sqlState != null && sqlState.startsWith("23") &&
+                    mensagem != null && mensagem.toUpperCase().contains(restricao)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
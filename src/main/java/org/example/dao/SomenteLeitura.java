@@ -0,0 +1,21 @@
+package org.example.dao;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca métodos de DAO que só leem e toleram o atraso da réplica. Com a réplica
+ * habilitada (conectahc.replica.habilitada), as conexões abertas dentro deles vão para ela.
+ *
+ * Leituras que decidem escritas (ex.: existeConsultaAtivaNaData, que evita agendamento
+ * duplicado) não levam a anotação e sempre usam o primário. As leituras cujo resultado
+ * sobrevive à requisição (carregamentos do CachePacientes, páginas servidas com ETag) são
+ * anotadas, mas chamadas dentro de VersoesTabelas.lerVersionado, que as manda ao primário
+ * enquanto a réplica pode não ter a última escrita da tabela.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SomenteLeitura {
+}
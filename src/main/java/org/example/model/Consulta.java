@@ -2,34 +2,36 @@ package org.example.model;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 public class Consulta {
 
+    private static final DateTimeFormatter FORMATO_EXIBICAO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
     private int id;
     private int pacienteId;
-    private String dataPrevista;
-    private String status;
+    private LocalDate dataPrevista;
+    private StatusConsulta status;
     private String motivo;
     private String observacoes;
 
     // Construtores
     public Consulta() {}
 
-    public Consulta(int pacienteId, String dataPrevista) {
+    public Consulta(int pacienteId, LocalDate dataPrevista) {
         this.pacienteId = pacienteId;
         this.dataPrevista = dataPrevista;
-        this.status = "agendada";
+        this.status = StatusConsulta.AGENDADA;
     }
 
-    public Consulta(int id, int pacienteId, String dataPrevista, String status) {
+    public Consulta(int id, int pacienteId, LocalDate dataPrevista, StatusConsulta status) {
         this.id = id;
         this.pacienteId = pacienteId;
         this.dataPrevista = dataPrevista;
         this.status = status;
     }
 
-    public Consulta(int id, int pacienteId, String dataPrevista, String status, String motivo, String observacoes) {
+    public Consulta(int id, int pacienteId, LocalDate dataPrevista, StatusConsulta status,
+                    String motivo, String observacoes) {
         this.id = id;
         this.pacienteId = pacienteId;
         this.dataPrevista = dataPrevista;
@@ -45,11 +47,11 @@ public class Consulta {
     public int getPacienteId() { return pacienteId; }
     public void setPacienteId(int pacienteId) { this.pacienteId = pacienteId; }
 
-    public String getDataPrevista() { return dataPrevista; }
-    public void setDataPrevista(String dataPrevista) { this.dataPrevista = dataPrevista; }
+    public LocalDate getDataPrevista() { return dataPrevista; }
+    public void setDataPrevista(LocalDate dataPrevista) { this.dataPrevista = dataPrevista; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public StatusConsulta getStatus() { return status; }
+    public void setStatus(StatusConsulta status) { this.status = status; }
 
     public String getMotivo() { return motivo; }
     public void setMotivo(String motivo) { this.motivo = motivo; }
@@ -59,44 +61,27 @@ public class Consulta {
 
     // Métodos de negócio
     public boolean dataFutura() {
-        try {
-            LocalDate dataConsulta = LocalDate.parse(this.dataPrevista);
-            return dataConsulta.isAfter(LocalDate.now());
-        } catch (DateTimeParseException e) {
-            return false;
-        }
+        return this.dataPrevista != null && this.dataPrevista.isAfter(LocalDate.now());
     }
 
     public boolean podeCancelar() {
-        try {
-            LocalDate dataConsulta = LocalDate.parse(this.dataPrevista);
-            LocalDate hoje = LocalDate.now();
-            return dataConsulta.isAfter(hoje.plusDays(1)) &&
-                    ("agendada".equalsIgnoreCase(this.status) || "confirmada".equalsIgnoreCase(this.status));
-        } catch (DateTimeParseException e) {
-            return false;
-        }
+        return this.dataPrevista != null &&
+                this.dataPrevista.isAfter(LocalDate.now().plusDays(1)) &&
+                this.status != null && this.status.ativa();
     }
 
     public boolean podeRemarcar() {
-        return !("concluida".equalsIgnoreCase(this.status) || "cancelada".equalsIgnoreCase(this.status));
+        return this.status != StatusConsulta.CONCLUIDA && this.status != StatusConsulta.CANCELADA;
     }
 
     public String formatarData() {
-        try {
-            LocalDate data = LocalDate.parse(this.dataPrevista);
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-            return data.format(formatter);
-        } catch (DateTimeParseException e) {
-            return "Data inválida";
-        }
+        return this.dataPrevista != null ? this.dataPrevista.format(FORMATO_EXIBICAO) : "Data inválida";
     }
 
     public boolean validarConsulta() {
         return this.pacienteId > 0 &&
-                this.dataPrevista != null && !this.dataPrevista.trim().isEmpty() &&
                 this.dataFutura() &&
-                this.status != null && !this.status.trim().isEmpty();
+                this.status != null;
     }
 
     @Override
@@ -0,0 +1,27 @@
+package org.example.model;
+
+public class ErroItemLote {
+
+    private int indice;
+    private String mensagem;
+
+    // Construtores
+    public ErroItemLote() {}
+
+    public ErroItemLote(int indice, String mensagem) {
+        this.indice = indice;
+        this.mensagem = mensagem;
+    }
+
+    // Getters e Setters
+    public int getIndice() { return indice; }
+    public void setIndice(int indice) { this.indice = indice; }
+
+    public String getMensagem() { return mensagem; }
+    public void setMensagem(String mensagem) { this.mensagem = mensagem; }
+
+    @Override
+    public String toString() {
+        return String.format("ErroItemLote{Índice: %d, Mensagem: %s}", indice, mensagem);
+    }
+}
@@ -32,6 +32,28 @@ public class Paciente {
         this.dataNascimento = dataNascimento;
     }
 
+    /**
+     * Cópia rasa, usada para montar visões do paciente sem alterar instâncias compartilhadas
+     */
+    public Paciente(Paciente outro) {
+        this.idPaciente = outro.idPaciente;
+        this.nome = outro.nome;
+        this.cpf = outro.cpf;
+        this.dataNascimento = outro.dataNascimento;
+        this.tpSanguineo = outro.tpSanguineo;
+        this.altura = outro.altura;
+        this.peso = outro.peso;
+        this.rg = outro.rg;
+        this.idade = outro.idade;
+        this.escolaridade = outro.escolaridade;
+        this.idEstadoCivil = outro.idEstadoCivil;
+        this.idPlano = outro.idPlano;
+        this.contatos = outro.contatos;
+        this.contatosEmergencia = outro.contatosEmergencia;
+        this.enderecos = outro.enderecos;
+        this.planosSaude = outro.planosSaude;
+    }
+
     // Getters e Setters
     public String getIdPaciente() { return idPaciente; }
     public void setIdPaciente(String idPaciente) { this.idPaciente = idPaciente; }
@@ -0,0 +1,39 @@
+package org.example.model;
+
+import java.util.List;
+
+public class Pagina<T> {
+
+    private List<T> itens;
+    private int limite;
+    private String proximoCursor;
+
+    // Construtores
+    public Pagina() {}
+
+    public Pagina(List<T> itens, int limite, String proximoCursor) {
+        this.itens = itens;
+        this.limite = limite;
+        this.proximoCursor = proximoCursor;
+    }
+
+    // Getters e Setters
+    public List<T> getItens() { return itens; }
+    public void setItens(List<T> itens) { this.itens = itens; }
+
+    public int getLimite() { return limite; }
+    public void setLimite(int limite) { this.limite = limite; }
+
+    public String getProximoCursor() { return proximoCursor; }
+    public void setProximoCursor(String proximoCursor) { this.proximoCursor = proximoCursor; }
+
+    public boolean temProximaPagina() {
+        return proximoCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pagina{Itens: %d, Limite: %d, Próximo: %s}",
+                itens != null ? itens.size() : 0, limite, proximoCursor);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ResultadoImportacao {
+
+    private long totalLinhas;
+    private long importados;
+    private long rejeitados;
+    private List<ErroItemLote> erros = Collections.synchronizedList(new ArrayList<>());
+
+    // Construtores
+    public ResultadoImportacao() {}
+
+    // Getters e Setters
+    public long getTotalLinhas() { return totalLinhas; }
+    public void setTotalLinhas(long totalLinhas) { this.totalLinhas = totalLinhas; }
+
+    public long getImportados() { return importados; }
+    public void setImportados(long importados) { this.importados = importados; }
+
+    public long getRejeitados() { return rejeitados; }
+    public void setRejeitados(long rejeitados) { this.rejeitados = rejeitados; }
+
+    public List<ErroItemLote> getErros() { return erros; }
+    public void setErros(List<ErroItemLote> erros) { this.erros = erros; }
+
+    public void adicionarErro(long linha, String motivo) {
+        erros.add(new ErroItemLote((int) linha, motivo));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoImportacao{Linhas: %d, Importados: %d, Rejeitados: %d}",
+                totalLinhas, importados, rejeitados);
+    }
+}
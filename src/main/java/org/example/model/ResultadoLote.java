@@ -0,0 +1,34 @@
+package org.example.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultadoLote<T> {
+
+    private List<T> processados = new ArrayList<>();
+    private List<ErroItemLote> erros = new ArrayList<>();
+
+    // Construtores
+    public ResultadoLote() {}
+
+    public ResultadoLote(List<T> processados, List<ErroItemLote> erros) {
+        this.processados = processados;
+        this.erros = erros;
+    }
+
+    // Getters e Setters
+    public List<T> getProcessados() { return processados; }
+    public void setProcessados(List<T> processados) { this.processados = processados; }
+
+    public List<ErroItemLote> getErros() { return erros; }
+    public void setErros(List<ErroItemLote> erros) { this.erros = erros; }
+
+    public void adicionarErro(int indice, String mensagem) {
+        erros.add(new ErroItemLote(indice, mensagem));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoLote{Processados: %d, Erros: %d}", processados.size(), erros.size());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum StatusConsulta {
+
+    AGENDADA("agendada"),
+    CONFIRMADA("confirmada"),
+    CONCLUIDA("concluida"),
+    CANCELADA("cancelada");
+
+    private final String valor;
+
+    StatusConsulta(String valor) {
+        this.valor = valor;
+    }
+
+    /**
+     * Valor gravado na coluna status e usado no JSON
+     */
+    @JsonValue
+    public String getValor() { return valor; }
+
+    /**
+     * Consulta que ainda ocupa a agenda do paciente
+     */
+    public boolean ativa() {
+        return this == AGENDADA || this == CONFIRMADA;
+    }
+
+    /**
+     * Conversão estrita, usada nos corpos das requisições: valor desconhecido é erro do cliente
+     */
+    @JsonCreator
+    public static StatusConsulta deValor(String valor) {
+        StatusConsulta status = deValorOuNulo(valor);
+        if (status == null && valor != null) {
+            throw new IllegalArgumentException("Status de consulta inválido: " + valor);
+        }
+        return status;
+    }
+
+    /**
+     * Conversão tolerante, usada para valores vindos do banco: valor desconhecido vira null
+     */
+    public static StatusConsulta deValorOuNulo(String valor) {
+        if (valor == null) {
+            return null;
+        }
+        for (StatusConsulta status : values()) {
+            if (status.valor.equalsIgnoreCase(valor.trim())) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return valor;
+    }
+}
@@ -0,0 +1,224 @@
+package org.example.service;
+
+import org.example.DataSourceRoteado;
+import org.example.dao.ConsultaDAO;
+import org.example.model.Consulta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Agenda em memória das consultas de uma janela móvel de dias, indexada por data.
+ *
+ * Quando habilitada (conectahc.agenda.habilitada), consultas por período que caem
+ * inteiramente dentro da janela são respondidas daqui; períodos fora da janela
+ * continuam indo ao banco. A agenda é mantida pelas operações de escrita do
+ * SistemaClinicaService e recarregada do banco periodicamente para acompanhar a janela.
+ */
+@Component
+public class AgendaConsultas {
+
+    private static final Logger logger = LoggerFactory.getLogger(AgendaConsultas.class);
+
+    private final ConsultaDAO consultaDAO;
+    private final boolean habilitada;
+    private final int diasPassados;
+    private final int diasFuturos;
+
+    private final ConcurrentSkipListMap<LocalDate, Map<Integer, Consulta>> porDia = new ConcurrentSkipListMap<>();
+    // Escritas pontuais compartilham o lock de leitura; a recarga completa usa o de escrita
+    private final ReadWriteLock lockRecarga = new ReentrantReadWriteLock();
+    private volatile LocalDate inicioJanela;
+    private volatile LocalDate fimJanela;
+
+    public AgendaConsultas(ConsultaDAO consultaDAO,
+                           @Value("${conectahc.agenda.habilitada:false}") boolean habilitada,
+                           @Value("${conectahc.agenda.dias-passados:7}") int diasPassados,
+                           @Value("${conectahc.agenda.dias-futuros:60}") int diasFuturos) {
+        this.consultaDAO = consultaDAO;
+        this.habilitada = habilitada;
+        this.diasPassados = diasPassados;
+        this.diasFuturos = diasFuturos;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        try {
+            recarregar();
+        } catch (Exception e) {
+            logger.warn("Não foi possível carregar a agenda de consultas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move a janela para a data atual e recarrega as consultas do banco
+     */
+    @Scheduled(fixedDelayString = "${conectahc.agenda.recarga-ms:3600000}",
+            initialDelayString = "${conectahc.agenda.recarga-ms:3600000}")
+    public void recarregar() {
+        if (!habilitada) {
+            return;
+        }
+
+        LocalDate hoje = LocalDate.now();
+        LocalDate inicio = hoje.minusDays(diasPassados);
+        LocalDate fim = hoje.plusDays(diasFuturos);
+
+        lockRecarga.writeLock().lock();
+        try {
+            inicioJanela = null;
+            fimJanela = null;
+            porDia.clear();
+            // Do primário: a recarga substitui a agenda inteira, e uma réplica atrasada
+            // apagaria da memória as consultas que as escritas já registraram aqui
+            List<Consulta> consultas = DataSourceRoteado.noPrimario(
+                    () -> consultaDAO.listarConsultasPorPeriodo(inicio, fim));
+            for (Consulta consulta : consultas) {
+                LocalDate data = consulta.getDataPrevista();
+                if (data != null) {
+                    porDia.computeIfAbsent(data, d -> new ConcurrentHashMap<>()).put(consulta.getId(), consulta);
+                }
+            }
+            inicioJanela = inicio;
+            fimJanela = fim;
+            logger.info("Agenda carregada: {} consultas entre {} e {}", consultas.size(), inicio, fim);
+        } finally {
+            lockRecarga.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indica se o período pode ser respondido pela agenda em memória
+     */
+    public boolean cobre(LocalDate inicio, LocalDate fim) {
+        LocalDate inicioAtual = inicioJanela;
+        LocalDate fimAtual = fimJanela;
+        return habilitada && inicioAtual != null && fimAtual != null &&
+                !inicio.isBefore(inicioAtual) && !fim.isAfter(fimAtual) && !inicio.isAfter(fim);
+    }
+
+    /**
+     * Lista as consultas do período em ordem de data, como a consulta ao banco.
+     *
+     * A cobertura é conferida sob o mesmo lock da leitura, para que uma recarga em
+     * andamento nunca devolva um período vazio ou pela metade.
+     *
+     * @return null se o período não estiver inteiro na janela; nesse caso consulte o banco
+     */
+    public List<Consulta> listar(LocalDate inicio, LocalDate fim) {
+        lockRecarga.readLock().lock();
+        try {
+            if (!cobre(inicio, fim)) {
+                return null;
+            }
+
+            List<Consulta> consultas = new ArrayList<>();
+            for (Map<Integer, Consulta> dia : porDia.subMap(inicio, true, fim, true).values()) {
+                List<Consulta> doDia = new ArrayList<>(dia.values());
+                doDia.sort(Comparator.comparingInt(Consulta::getId));
+                for (Consulta consulta : doDia) {
+                    consultas.add(copiar(consulta));
+                }
+            }
+            return consultas;
+        } finally {
+            lockRecarga.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra uma consulta nova ou alterada, removendo-a da data anterior se necessário
+     */
+    public void registrar(Consulta consulta, LocalDate dataAnterior) {
+        if (!habilitada) {
+            return;
+        }
+
+        lockRecarga.readLock().lock();
+        try {
+            remover(consulta.getId(), dataAnterior);
+            LocalDate data = consulta.getDataPrevista();
+            if (data != null && dentroDaJanela(data)) {
+                porDia.computeIfAbsent(data, d -> new ConcurrentHashMap<>()).put(consulta.getId(), copiar(consulta));
+            }
+        } finally {
+            lockRecarga.readLock().unlock();
+        }
+    }
+
+    public void registrar(Consulta consulta) {
+        registrar(consulta, null);
+    }
+
+    /**
+     * Aplica uma alteração à consulta já registrada, em qualquer dia da janela, e a
+     * reposiciona pela data resultante. Usado quando o serviço não leu a consulta do banco.
+     *
+     * @return false se a consulta não estava na agenda
+     */
+    public boolean alterar(int id, Consumer<Consulta> alteracao) {
+        if (!habilitada) {
+            return false;
+        }
+
+        lockRecarga.readLock().lock();
+        try {
+            for (Map<Integer, Consulta> dia : porDia.values()) {
+                Consulta atual = dia.remove(id);
+                if (atual != null) {
+                    Consulta alterada = copiar(atual);
+                    alteracao.accept(alterada);
+                    LocalDate data = alterada.getDataPrevista();
+                    if (data != null && dentroDaJanela(data)) {
+                        porDia.computeIfAbsent(data, d -> new ConcurrentHashMap<>()).put(id, alterada);
+                    }
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lockRecarga.readLock().unlock();
+        }
+    }
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    private void remover(int id, LocalDate dia) {
+        if (dia == null) {
+            return;
+        }
+        Map<Integer, Consulta> consultasDoDia = porDia.get(dia);
+        if (consultasDoDia != null) {
+            consultasDoDia.remove(id);
+        }
+    }
+
+    private boolean dentroDaJanela(LocalDate data) {
+        LocalDate inicioAtual = inicioJanela;
+        LocalDate fimAtual = fimJanela;
+        return inicioAtual != null && fimAtual != null &&
+                !data.isBefore(inicioAtual) && !data.isAfter(fimAtual);
+    }
+
+    private Consulta copiar(Consulta consulta) {
+        return new Consulta(consulta.getId(), consulta.getPacienteId(), consulta.getDataPrevista(),
+                consulta.getStatus(), consulta.getMotivo(), consulta.getObservacoes());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.dao.PacienteDAO;
+import org.example.model.Paciente;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache de leitura (read-through) na frente do PacienteDAO, indexado por
+ * ID_PACIENTE e por CPF. Apenas pacientes encontrados são guardados, para que
+ * um cadastro novo nunca fique escondido por um "não encontrado" em cache.
+ * Com a réplica habilitada, os carregamentos passam por VersoesTabelas.lerVersionado: logo
+ * depois de uma escrita em pacientes vão ao primário, já que um paciente desatualizado lido
+ * da réplica ficaria no cache até o TTL; fora desse prazo são servidos pela réplica.
+ */
+@Component
+public class CachePacientes {
+
+    private final PacienteDAO pacienteDAO;
+    private final VersoesTabelas versoesTabelas;
+    private final Cache<String, Paciente> porId;
+    // Só o ID: o paciente fica apenas em porId, e o índice é conferido a cada leitura
+    private final Cache<String, String> idPorCpf;
+
+    public CachePacientes(PacienteDAO pacienteDAO,
+                          VersoesTabelas versoesTabelas,
+                          MeterRegistry meterRegistry,
+                          @Value("${conectahc.cache.pacientes.tamanho-maximo:10000}") long tamanhoMaximo,
+                          @Value("${conectahc.cache.pacientes.ttl:10m}") Duration ttl) {
+        this.pacienteDAO = pacienteDAO;
+        this.versoesTabelas = versoesTabelas;
+        this.porId = criarCache(tamanhoMaximo, ttl);
+        this.idPorCpf = criarCache(tamanhoMaximo, ttl);
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, "pacientes.id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idPorCpf, "pacientes.cpf");
+    }
+
+    /**
+     * O carregamento roda dentro do compute do Caffeine: um invalidar() concorrente da
+     * mesma chave espera o fim da leitura e remove o que ela guardou.
+     */
+    public Paciente buscarPorId(String idPaciente) {
+        Paciente paciente = porId.get(idPaciente, chave -> versoesTabelas.lerVersionado(
+                VersoesTabelas.Tabela.PACIENTES, () -> pacienteDAO.buscarPacientePorId(chave)));
+        if (paciente != null && paciente.getCpf() != null) {
+            idPorCpf.put(paciente.getCpf(), idPaciente);
+        }
+        return paciente;
+    }
+
+    /**
+     * Resolve o CPF pelo índice e confere o CPF do paciente guardado em porId. Uma entrada
+     * antiga do índice (CPF alterado, paciente removido, invalidação concorrente) não
+     * confere e a busca segue para o banco.
+     */
+    public Paciente buscarPorCpf(String cpf) {
+        String idPaciente = idPorCpf.getIfPresent(cpf);
+        if (idPaciente != null) {
+            Paciente paciente = buscarPorId(idPaciente);
+            if (paciente != null && cpf.equals(paciente.getCpf())) {
+                return paciente;
+            }
+            idPorCpf.asMap().remove(cpf, idPaciente);
+        }
+
+        Paciente paciente = versoesTabelas.lerVersionado(
+                VersoesTabelas.Tabela.PACIENTES, () -> pacienteDAO.buscarPorCPF(cpf));
+        if (paciente != null && paciente.getIdPaciente() != null) {
+            idPorCpf.put(cpf, paciente.getIdPaciente());
+        }
+        return paciente;
+    }
+
+    /**
+     * Remove o paciente do cache pelas duas chaves
+     */
+    public void invalidar(String idPaciente, String cpf) {
+        if (idPaciente != null) {
+            porId.invalidate(idPaciente);
+        }
+        if (cpf != null) {
+            idPorCpf.invalidate(cpf);
+        }
+    }
+
+    private static <V> Cache<String, V> criarCache(long tamanhoMaximo, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
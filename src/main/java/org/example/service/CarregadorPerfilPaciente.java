@@ -0,0 +1,129 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.DataSourceRoteado;
+import org.example.LimitadorConcorrencia;
+import org.example.dao.ContatoDAO;
+import org.example.dao.EnderecoDAO;
+import org.example.dao.PlanoSaudeDAO;
+import org.example.model.Contato;
+import org.example.model.Endereco;
+import org.example.model.Paciente;
+import org.example.model.PacientePlanoSaude;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Monta o perfil completo do paciente (dados, contatos, endereços e planos)
+ * disparando as consultas em paralelo em um executor limitado, com prazo por chamada.
+ * A latência passa a ser próxima da consulta mais lenta, e não da soma de todas.
+ */
+@Service
+public class CarregadorPerfilPaciente {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarregadorPerfilPaciente.class);
+
+    private final CachePacientes cachePacientes;
+    private final ContatoDAO contatoDAO;
+    private final EnderecoDAO enderecoDAO;
+    private final PlanoSaudeDAO planoSaudeDAO;
+    private final long prazoMs;
+    private final ExecutorService executor;
+
+    public CarregadorPerfilPaciente(CachePacientes cachePacientes,
+                                    ContatoDAO contatoDAO,
+                                    EnderecoDAO enderecoDAO,
+                                    PlanoSaudeDAO planoSaudeDAO,
+                                    @Value("${conectahc.perfil.prazo-ms:2000}") long prazoMs,
+                                    @Value("${conectahc.perfil.workers:16}") int quantidadeWorkers) {
+        this.cachePacientes = cachePacientes;
+        this.contatoDAO = contatoDAO;
+        this.enderecoDAO = enderecoDAO;
+        this.planoSaudeDAO = planoSaudeDAO;
+        this.prazoMs = prazoMs;
+        this.executor = new ThreadPoolExecutor(
+                quantidadeWorkers, quantidadeWorkers,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(quantidadeWorkers * 8),
+                r -> {
+                    Thread thread = new Thread(r, "perfil-paciente");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Carrega o paciente e todas as coleções filhas em paralelo.
+     *
+     * @throws IllegalArgumentException se o paciente não existir
+     * @throws IllegalStateException se o prazo estourar ou o executor estiver saturado
+     */
+    public Paciente carregar(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID do paciente inválido");
+        }
+        String idPaciente = String.valueOf(id);
+
+        CompletableFuture<Paciente> paciente;
+        CompletableFuture<List<Contato>> contatos;
+        CompletableFuture<List<Endereco>> enderecos;
+        CompletableFuture<List<PacientePlanoSaude>> planos;
+        try {
+            paciente = disparar(() -> cachePacientes.buscarPorId(idPaciente));
+            contatos = disparar(() -> contatoDAO.listarContatosPorPaciente(idPaciente));
+            enderecos = disparar(() -> enderecoDAO.listarEnderecosPorPaciente(idPaciente));
+            planos = disparar(() -> planoSaudeDAO.listarPlanosPorPaciente(idPaciente));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Executor de perfil saturado; recusando perfil do paciente {}", id);
+            throw new IllegalStateException("Serviço ocupado, tente novamente", e);
+        }
+
+        CompletableFuture<Void> todas = CompletableFuture.allOf(paciente, contatos, enderecos, planos);
+        try {
+            todas.get(prazoMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Libera quem ainda não começou; consultas já em andamento terminam sozinhas
+            List.of(paciente, contatos, enderecos, planos).forEach(f -> f.cancel(true));
+            logger.warn("Prazo de {} ms excedido ao carregar perfil do paciente {}", prazoMs, id);
+            throw new IllegalStateException("Tempo limite excedido ao carregar perfil do paciente", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Carregamento do perfil interrompido", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erro ao carregar perfil do paciente: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        Paciente encontrado = paciente.join();
+        if (encontrado == null) {
+            throw new IllegalArgumentException("Paciente não encontrado");
+        }
+
+        // Cópia para não alterar a instância guardada no cache
+        Paciente perfil = new Paciente(encontrado);
+        perfil.setContatos(contatos.join());
+        perfil.setEnderecos(enderecos.join());
+        perfil.setPlanosSaude(planos.join());
+        return perfil;
+    }
+
+    /**
+     * Na thread do executor valem o roteamento da requisição (janela de leitura das próprias
+     * escritas) e a contagem do tempo de DAO para o limitador.
+     */
+    private <T> CompletableFuture<T> disparar(Supplier<T> consulta) {
+        return CompletableFuture.supplyAsync(
+                DataSourceRoteado.comRoteamento(LimitadorConcorrencia.comTempoDao(consulta)), executor);
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.service;
+
+import org.example.dao.ConsultaDAO;
+import org.example.model.StatusConsulta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores em memória da quantidade de consultas por status.
+ * São carregados do banco na inicialização, atualizados pelas operações de escrita
+ * do SistemaClinicaService e reconciliados periodicamente com o banco.
+ *
+ * O serviço marca cada escrita de consulta com iniciarEscrita/concluirEscrita. A
+ * reconciliação só aplica a contagem do banco se nenhuma escrita estava em andamento
+ * nem começou enquanto ela consultava; senão uma consulta gravada no meio do caminho
+ * entraria duas vezes (na contagem do banco e no incremento do serviço).
+ */
+@Component
+public class ContadoresConsulta {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContadoresConsulta.class);
+
+    private static final int TENTATIVAS_RECONCILIACAO = 5;
+    private static final long ESPERA_ENTRE_TENTATIVAS_MS = 20;
+
+    private final ConsultaDAO consultaDAO;
+    private final VersoesTabelas versoesTabelas;
+    // Um contador por status, criados uma única vez; consultas sem status conhecido vão para "outros"
+    private final EnumMap<StatusConsulta, LongAdder> contadores = new EnumMap<>(StatusConsulta.class);
+    private final LongAdder outros = new LongAdder();
+    private final AtomicLong escritasIniciadas = new AtomicLong();
+    private final AtomicLong escritasConcluidas = new AtomicLong();
+    private volatile boolean carregado;
+
+    public ContadoresConsulta(ConsultaDAO consultaDAO, VersoesTabelas versoesTabelas) {
+        this.consultaDAO = consultaDAO;
+        this.versoesTabelas = versoesTabelas;
+        for (StatusConsulta status : StatusConsulta.values()) {
+            contadores.put(status, new LongAdder());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        try {
+            reconciliar();
+        } catch (Exception e) {
+            logger.warn("Não foi possível carregar os contadores de consultas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ajusta os contadores aos totais atuais do banco, corrigindo qualquer desvio.
+     *
+     * Execuções simultâneas (agendamento e relatório) são serializadas. A contagem só é
+     * aplicada numa janela sem escritas do serviço; havendo escritas, tenta de novo algumas
+     * vezes e, se não conseguir, deixa para a próxima rodada. Os contadores recebem a
+     * diferença para o banco em vez de serem zerados, e os leitores nunca veem totais
+     * zerados no meio do caminho.
+     *
+     * @return false se a reconciliação foi adiada por escritas em andamento
+     */
+    @Scheduled(fixedDelayString = "${conectahc.relatorio.reconciliacao-ms:300000}",
+            initialDelayString = "${conectahc.relatorio.reconciliacao-ms:300000}")
+    public synchronized boolean reconciliar() {
+        for (int tentativa = 1; tentativa <= TENTATIVAS_RECONCILIACAO; tentativa++) {
+            long concluidas = escritasConcluidas.get();
+            long iniciadas = escritasIniciadas.get();
+            if (iniciadas == concluidas) {
+                EnumMap<StatusConsulta, Long> antes = obterTotais();
+                long outrosAntes = outros.sum();
+                Map<String, Long> totaisBanco = consultaDAO.contarConsultasAgrupadasPorStatus();
+                if (escritasIniciadas.get() == iniciadas && escritasConcluidas.get() == concluidas) {
+                    aplicar(antes, outrosAntes, totaisBanco);
+                    return true;
+                }
+            }
+            try {
+                Thread.sleep(ESPERA_ENTRE_TENTATIVAS_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.info("Reconciliação dos contadores adiada: escritas de consultas em andamento");
+        return false;
+    }
+
+    private void aplicar(EnumMap<StatusConsulta, Long> antes, long outrosAntes, Map<String, Long> totaisBanco) {
+
+        EnumMap<StatusConsulta, Long> totais = new EnumMap<>(StatusConsulta.class);
+        long semStatusConhecido = 0;
+        for (Map.Entry<String, Long> entrada : totaisBanco.entrySet()) {
+            StatusConsulta status = StatusConsulta.deValorOuNulo(entrada.getKey());
+            if (status != null) {
+                totais.merge(status, entrada.getValue(), Long::sum);
+            } else {
+                semStatusConhecido += entrada.getValue();
+            }
+        }
+
+        boolean houveDesvio = carregado &&
+                (!antes.equals(completarTotais(totais)) || outrosAntes != semStatusConhecido);
+
+        contadores.forEach((status, contador) ->
+                contador.add(totais.getOrDefault(status, 0L) - antes.get(status)));
+        outros.add(semStatusConhecido - outrosAntes);
+        carregado = true;
+        if (houveDesvio) {
+            // Mudanças feitas fora do serviço: invalida os ETags do relatório e das listagens
+            versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.CONSULTAS);
+        }
+        logger.info("Contadores de consultas reconciliados: {} (outros: {})", totais, semStatusConhecido);
+    }
+
+    /**
+     * Marca o início de uma escrita de consulta; deve ser seguida de concluirEscrita
+     * (em finally), depois de registrarNova/registrarMudancaStatus.
+     */
+    public void iniciarEscrita() {
+        escritasIniciadas.incrementAndGet();
+    }
+
+    public void concluirEscrita() {
+        escritasConcluidas.incrementAndGet();
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    public void registrarNova(StatusConsulta status) {
+        contador(status).increment();
+    }
+
+    public void registrarMudancaStatus(StatusConsulta statusAnterior, StatusConsulta novoStatus) {
+        if (statusAnterior == novoStatus) {
+            return;
+        }
+        contador(statusAnterior).decrement();
+        contador(novoStatus).increment();
+    }
+
+    /**
+     * Retorna uma cópia dos totais atuais por status
+     */
+    public EnumMap<StatusConsulta, Long> obterTotais() {
+        EnumMap<StatusConsulta, Long> totais = new EnumMap<>(StatusConsulta.class);
+        contadores.forEach((status, contador) -> totais.put(status, contador.sum()));
+        return totais;
+    }
+
+    /**
+     * Total de consultas, incluindo as que não têm status conhecido
+     */
+    public long obterTotalGeral() {
+        long total = outros.sum();
+        for (LongAdder contador : contadores.values()) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    private EnumMap<StatusConsulta, Long> completarTotais(EnumMap<StatusConsulta, Long> totais) {
+        EnumMap<StatusConsulta, Long> completos = new EnumMap<>(StatusConsulta.class);
+        for (StatusConsulta status : StatusConsulta.values()) {
+            completos.put(status, totais.getOrDefault(status, 0L));
+        }
+        return completos;
+    }
+
+    private LongAdder contador(StatusConsulta status) {
+        return status != null ? contadores.get(status) : outros;
+    }
+}
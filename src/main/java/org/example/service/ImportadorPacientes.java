@@ -0,0 +1,272 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.LimitadorConcorrencia;
+import org.example.dao.PacienteDAO;
+import org.example.model.Paciente;
+import org.example.model.ResultadoImportacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Importação em massa de pacientes a partir de um CSV.
+ *
+ * O arquivo é lido registro a registro e agrupado em blocos. Para cada bloco os CPFs e os
+ * IDs são verificados no banco com uma consulta IN cada, e as linhas válidas são gravadas
+ * em lote por um pool limitado de workers, cada um com a sua conexão. Se o banco recusar
+ * o lote, o bloco é regravado linha a linha e só as linhas com problema são rejeitadas.
+ *
+ * Colunas esperadas (com cabeçalho, separadas por vírgula ou ponto e vírgula, campos
+ * opcionalmente entre aspas):
+ * ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, ALTURA, PESO, RG, IDADE, ESCOLARIDADE
+ *
+ * O andamento sai no log a cada bloco e nos contadores conectahc.importacao.linhas.
+ */
+@Service
+public class ImportadorPacientes {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportadorPacientes.class);
+
+    private static final int TOTAL_COLUNAS = 10;
+    private static final int MAXIMO_ERROS_DETALHADOS = 1000;
+
+    private final PacienteDAO pacienteDAO;
+    private final VersoesTabelas versoesTabelas;
+    private final int tamanhoBloco;
+    private final ExecutorService workers;
+    private final Counter linhasImportadas;
+    private final Counter linhasRejeitadas;
+
+    public ImportadorPacientes(PacienteDAO pacienteDAO,
+                               VersoesTabelas versoesTabelas,
+                               MeterRegistry meterRegistry,
+                               @Value("${conectahc.importacao.tamanho-bloco:500}") int tamanhoBloco,
+                               @Value("${conectahc.importacao.workers:4}") int quantidadeWorkers) {
+        this.pacienteDAO = pacienteDAO;
+        this.versoesTabelas = versoesTabelas;
+        this.tamanhoBloco = Math.min(tamanhoBloco, 1000);
+        this.linhasImportadas = contadorLinhas(meterRegistry, "importada");
+        this.linhasRejeitadas = contadorLinhas(meterRegistry, "rejeitada");
+        AtomicInteger numeroWorker = new AtomicInteger();
+        // Fila curta + CallerRunsPolicy: a leitura do arquivo espera os workers em vez de acumular blocos
+        this.workers = new ThreadPoolExecutor(
+                quantidadeWorkers, quantidadeWorkers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(quantidadeWorkers),
+                r -> {
+                    Thread thread = new Thread(r, "importacao-pacientes-" + numeroWorker.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static Counter contadorLinhas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("conectahc.importacao.linhas")
+                .description("Linhas de CSV de pacientes processadas na importação")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        workers.shutdown();
+    }
+
+    public ResultadoImportacao importar(InputStream csv) {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        AtomicLong importados = new AtomicLong();
+        AtomicLong rejeitados = new AtomicLong();
+        List<Future<?>> pendentes = new ArrayList<>();
+        Set<String> cpfsDoArquivo = new HashSet<>();
+        Set<String> idsDoArquivo = new HashSet<>();
+        BufferedReader entrada = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        LeitorCsv leitor = new LeitorCsv(entrada);
+
+        try (entrada) {
+            if (leitor.lerCabecalho() == null) {
+                throw new IllegalArgumentException("Arquivo CSV vazio");
+            }
+
+            Map<Long, Paciente> bloco = new LinkedHashMap<>();
+            while (true) {
+                String[] colunas;
+                try {
+                    colunas = leitor.proximoRegistro();
+                } catch (IllegalArgumentException e) {
+                    rejeitar(resultado, rejeitados, leitor.linhaRegistro(), e.getMessage());
+                    break;
+                }
+                if (colunas == null) {
+                    break;
+                }
+
+                long numeroLinha = leitor.linhaRegistro();
+                try {
+                    Paciente paciente = converterLinha(colunas);
+                    ValidacaoCadastro.validarPaciente(paciente);
+                    if (cpfsDoArquivo.contains(paciente.getCpf())) {
+                        throw new IllegalArgumentException("CPF repetido no arquivo");
+                    }
+                    if (!idsDoArquivo.add(paciente.getIdPaciente())) {
+                        throw new IllegalArgumentException("ID repetido no arquivo");
+                    }
+                    cpfsDoArquivo.add(paciente.getCpf());
+                    bloco.put(numeroLinha, paciente);
+                } catch (IllegalArgumentException e) {
+                    rejeitar(resultado, rejeitados, numeroLinha, e.getMessage());
+                }
+
+                if (bloco.size() == tamanhoBloco) {
+                    pendentes.add(enviarBloco(bloco, resultado, importados, rejeitados));
+                    bloco = new LinkedHashMap<>();
+                    logger.info("Importação de pacientes: {} linhas lidas, {} importadas, {} rejeitadas",
+                            leitor.linhasLidas() - 1, importados.get(), rejeitados.get());
+                }
+            }
+            if (!bloco.isEmpty()) {
+                pendentes.add(enviarBloco(bloco, resultado, importados, rejeitados));
+            }
+
+            for (Future<?> pendente : pendentes) {
+                pendente.get();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao ler arquivo CSV: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Importação interrompida", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erro ao importar pacientes: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        resultado.setTotalLinhas(Math.max(leitor.linhasLidas() - 1, 0));
+        resultado.setImportados(importados.get());
+        resultado.setRejeitados(rejeitados.get());
+        logger.info("Importação de pacientes concluída: {}", resultado);
+        return resultado;
+    }
+
+    private Future<?> enviarBloco(Map<Long, Paciente> bloco, ResultadoImportacao resultado,
+                                  AtomicLong importados, AtomicLong rejeitados) {
+        // O tempo do worker nos DAOs conta para o limitador da requisição
+        return workers.submit(LimitadorConcorrencia.comTempoDao(() -> {
+            Set<String> cpfsExistentes = pacienteDAO.buscarCpfsExistentes(
+                    bloco.values().stream().map(Paciente::getCpf).toList());
+            Set<String> idsExistentes = pacienteDAO.buscarIdsExistentes(
+                    bloco.values().stream().map(Paciente::getIdPaciente).toList());
+
+            Map<Long, Paciente> novos = new LinkedHashMap<>();
+            bloco.forEach((linha, paciente) -> {
+                if (cpfsExistentes.contains(paciente.getCpf())) {
+                    rejeitar(resultado, rejeitados, linha, "CPF já cadastrado no sistema");
+                } else if (idsExistentes.contains(paciente.getIdPaciente())) {
+                    rejeitar(resultado, rejeitados, linha, "ID já cadastrado no sistema");
+                } else {
+                    novos.put(linha, paciente);
+                }
+            });
+
+            if (novos.isEmpty()) {
+                return;
+            }
+            try {
+                pacienteDAO.criarPacientesEmLote(new ArrayList<>(novos.values()));
+                contarImportados(importados, novos.size());
+            } catch (RuntimeException e) {
+                // Cadastro concorrente ou linha que o banco recusa: o lote volta inteiro,
+                // então o bloco é regravado linha a linha para rejeitar só as culpadas
+                logger.warn("Bloco de pacientes recusado pelo banco, gravando linha a linha: {}", e.getMessage());
+                gravarUmaAUma(novos, resultado, importados, rejeitados);
+            }
+        }));
+    }
+
+    private void gravarUmaAUma(Map<Long, Paciente> novos, ResultadoImportacao resultado,
+                               AtomicLong importados, AtomicLong rejeitados) {
+        int gravados = 0;
+        for (Map.Entry<Long, Paciente> novo : novos.entrySet()) {
+            try {
+                if (pacienteDAO.criarPaciente(novo.getValue())) {
+                    gravados++;
+                } else {
+                    rejeitar(resultado, rejeitados, novo.getKey(), "CPF já cadastrado no sistema");
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Linha {} da importação recusada pelo banco: {}", novo.getKey(), e.getMessage());
+                rejeitar(resultado, rejeitados, novo.getKey(), "Paciente recusado pelo banco de dados");
+            }
+        }
+        if (gravados > 0) {
+            contarImportados(importados, gravados);
+        }
+    }
+
+    private void contarImportados(AtomicLong importados, int quantidade) {
+        versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.PACIENTES);
+        importados.addAndGet(quantidade);
+        linhasImportadas.increment(quantidade);
+    }
+
+    private Paciente converterLinha(String[] colunas) {
+        if (colunas.length != TOTAL_COLUNAS) {
+            throw new IllegalArgumentException(
+                    "Linha deve ter " + TOTAL_COLUNAS + " colunas, encontradas " + colunas.length);
+        }
+
+        Paciente paciente = new Paciente();
+        paciente.setIdPaciente(valorOuNulo(colunas[0]));
+        if (paciente.getIdPaciente() == null) {
+            throw new IllegalArgumentException("ID do paciente é obrigatório");
+        }
+        paciente.setNome(valorOuNulo(colunas[1]));
+        paciente.setCpf(valorOuNulo(colunas[2]));
+        try {
+            String dataNascimento = valorOuNulo(colunas[3]);
+            paciente.setDataNascimento(dataNascimento != null ? LocalDate.parse(dataNascimento) : null);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data de nascimento inválida");
+        }
+        paciente.setTpSanguineo(valorOuNulo(colunas[4]));
+        paciente.setAltura(valorOuNulo(colunas[5]));
+        paciente.setPeso(valorOuNulo(colunas[6]));
+        paciente.setRg(valorOuNulo(colunas[7]));
+        try {
+            String idade = valorOuNulo(colunas[8]);
+            paciente.setIdade(idade != null ? Integer.parseInt(idade) : 0);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Idade inválida");
+        }
+        paciente.setEscolaridade(valorOuNulo(colunas[9]));
+        return paciente;
+    }
+
+    private String valorOuNulo(String valor) {
+        String limpo = valor.trim();
+        return limpo.isEmpty() ? null : limpo;
+    }
+
+    private void rejeitar(ResultadoImportacao resultado, AtomicLong rejeitados, long linha, String motivo) {
+        rejeitados.incrementAndGet();
+        linhasRejeitadas.increment();
+        if (resultado.getErros().size() < MAXIMO_ERROS_DETALHADOS) {
+            resultado.adicionarErro(linha, motivo);
+        }
+    }
+}
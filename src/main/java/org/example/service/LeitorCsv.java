@@ -0,0 +1,119 @@
+package org.example.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV no formato das planilhas exportadas: campos podem vir entre aspas duplas,
+ * com o separador, aspas dobradas ("") ou quebras de linha dentro deles.
+ *
+ * O separador é escolhido pelo cabeçalho (ponto e vírgula se houver, senão vírgula).
+ * Linhas em branco entre registros são ignoradas.
+ */
+final class LeitorCsv {
+
+    private final BufferedReader leitor;
+    private char separador = ',';
+    private long linhaAtual;
+    private long linhaRegistro;
+
+    LeitorCsv(BufferedReader leitor) {
+        this.leitor = leitor;
+    }
+
+    /**
+     * Lê o cabeçalho e define o separador
+     *
+     * @return os nomes das colunas, ou null se o arquivo estiver vazio
+     */
+    String[] lerCabecalho() throws IOException {
+        String linha = leitor.readLine();
+        if (linha == null) {
+            return null;
+        }
+        linhaAtual++;
+        separador = linha.indexOf(';') >= 0 ? ';' : ',';
+        linhaRegistro = linhaAtual;
+        return dividir(linha);
+    }
+
+    /**
+     * @return os campos do próximo registro, ou null no fim do arquivo
+     * @throws IllegalArgumentException se o arquivo termina com aspas abertas
+     */
+    String[] proximoRegistro() throws IOException {
+        String linha;
+        do {
+            linha = leitor.readLine();
+            if (linha == null) {
+                return null;
+            }
+            linhaAtual++;
+        } while (linha.isBlank());
+
+        linhaRegistro = linhaAtual;
+        return dividir(linha);
+    }
+
+    /**
+     * Linha do arquivo (contando o cabeçalho) em que começou o último registro lido
+     */
+    long linhaRegistro() {
+        return linhaRegistro;
+    }
+
+    /**
+     * Linhas físicas lidas até agora, incluindo o cabeçalho e as linhas em branco
+     */
+    long linhasLidas() {
+        return linhaAtual;
+    }
+
+    private String[] dividir(String linha) throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        int i = 0;
+
+        while (true) {
+            if (i == linha.length()) {
+                if (!entreAspas) {
+                    break;
+                }
+                // Quebra de linha dentro de um campo entre aspas: o registro continua
+                String continuacao = leitor.readLine();
+                if (continuacao == null) {
+                    throw new IllegalArgumentException("Aspas não fechadas no fim do arquivo");
+                }
+                linhaAtual++;
+                campo.append('\n');
+                linha = continuacao;
+                i = 0;
+                continue;
+            }
+
+            char c = linha.charAt(i++);
+            if (entreAspas) {
+                if (c != '"') {
+                    campo.append(c);
+                } else if (i < linha.length() && linha.charAt(i) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreAspas = false;
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos.toArray(new String[0]);
+    }
+}
@@ -4,10 +4,16 @@ import org.example.dao.*;
 import org.example.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 @Service
 public class SistemaClinicaService implements OperacoesSistema {
@@ -21,23 +27,55 @@ public class SistemaClinicaService implements OperacoesSistema {
     private final EnderecoDAO enderecoDAO;
     private final PlanoSaudeDAO planoSaudeDAO;
 
+    // Totais por status mantidos em memória para o relatório
+    private final ContadoresConsulta contadoresConsulta;
+
+    // Cache das buscas de paciente por ID e CPF
+    private final CachePacientes cachePacientes;
+
+    // Agenda em memória usada nas consultas por período
+    private final AgendaConsultas agendaConsultas;
+
+    // Versões por tabela usadas nos ETags das listagens
+    private final VersoesTabelas versoesTabelas;
+
     // Constantes de validação
-    private static final int TELEFONE_MIN_DIGITOS = 10;
-    private static final int TELEFONE_MAX_DIGITOS = 11;
-    private static final int IDADE_MAIORIDADE = 18;
     private static final int DIAS_ANTECEDENCIA_CANCELAMENTO = 2;
-    private static final String PADRAO_TELEFONE = "\\d{10,11}";
+    private static final int LIMITE_PAGINA_PADRAO = 50;
+    private static final int LIMITE_PAGINA_MAXIMO = 500;
+    private static final int TAMANHO_MAXIMO_LOTE = 1000;
+    private static final Set<String> INCLUSOES_PACIENTE = Set.of("contatos", "enderecos");
+    private static final String ERRO_DATA_OCUPADA = "Paciente já possui consulta marcada nesta data";
+
+    // Serializa verificação + inserção por (paciente, dia) nesta instância
+    private final TravasPacienteDia travasAgendamento = new TravasPacienteDia(256);
+
+    // Linhas buscadas por ida ao banco nas exportações em streaming
+    @Value("${conectahc.streaming.fetch-size:500}")
+    private int tamanhoFetchStreaming;
 
     /**
-     * Construtor que inicializa todos os DAOs
+     * Construtor que recebe os DAOs gerenciados pelo Spring
      */
-    public SistemaClinicaService() {
+    public SistemaClinicaService(PacienteDAO pacienteDAO,
+                                 ConsultaDAO consultaDAO,
+                                 ContatoDAO contatoDAO,
+                                 EnderecoDAO enderecoDAO,
+                                 PlanoSaudeDAO planoSaudeDAO,
+                                 ContadoresConsulta contadoresConsulta,
+                                 CachePacientes cachePacientes,
+                                 AgendaConsultas agendaConsultas,
+                                 VersoesTabelas versoesTabelas) {
         logger.info("Inicializando SistemaClinicaService");
-        this.pacienteDAO = new PacienteDAO();
-        this.consultaDAO = new ConsultaDAO();
-        this.contatoDAO = new ContatoDAO();
-        this.enderecoDAO = new EnderecoDAO();
-        this.planoSaudeDAO = new PlanoSaudeDAO();
+        this.pacienteDAO = pacienteDAO;
+        this.consultaDAO = consultaDAO;
+        this.contatoDAO = contatoDAO;
+        this.enderecoDAO = enderecoDAO;
+        this.planoSaudeDAO = planoSaudeDAO;
+        this.contadoresConsulta = contadoresConsulta;
+        this.cachePacientes = cachePacientes;
+        this.agendaConsultas = agendaConsultas;
+        this.versoesTabelas = versoesTabelas;
     }
 
     // =====================================================
@@ -50,23 +88,24 @@ public class SistemaClinicaService implements OperacoesSistema {
             logger.info("Iniciando cadastro do paciente: {}", paciente.getNome());
 
             // Validações
-            validarPaciente(paciente);
+            ValidacaoCadastro.validarPaciente(paciente);
 
-            // Verificar se CPF já existe
-            if (pacienteDAO.buscarPorCPF(paciente.getCpf()) != null) {
+            // Criar paciente; a unicidade do CPF é garantida pelo banco
+            if (!pacienteDAO.criarPaciente(paciente)) {
                 String erro = "CPF já cadastrado no sistema";
                 logger.warn(erro);
                 throw new IllegalArgumentException(erro);
             }
-
-            // Criar paciente
-            pacienteDAO.criarPaciente(paciente);
+            versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.PACIENTES);
             logger.info("Paciente {} cadastrado com sucesso. ID: {}",
                     paciente.getNome(), paciente.getIdPaciente());
 
         } catch (IllegalArgumentException e) {
             logger.error("Erro na validação do paciente: {}", e.getMessage());
             throw e;
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Cadastro de paciente recusado pelo banco: {}", e.getMessage());
+            throw new IllegalArgumentException("Já existe paciente com este ID ou faltam dados obrigatórios");
         } catch (Exception e) {
             logger.error("Erro ao cadastrar paciente: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao cadastrar paciente: " + e.getMessage(), e);
@@ -86,6 +125,47 @@ public class SistemaClinicaService implements OperacoesSistema {
         }
     }
 
+    /**
+     * Lista uma página de pacientes. As coleções pedidas em "incluir" (contatos, enderecos)
+     * são carregadas para a página inteira com poucas consultas IN, em vez de uma por paciente.
+     */
+    public Pagina<Paciente> listarPacientesPaginados(Integer limite, String cursor, Set<String> incluir) {
+        try {
+            int limiteEfetivo = validarPaginaPacientes(limite, cursor, incluir);
+
+            logger.info("Listando pacientes paginados (limite {}, cursor {}, incluir {})",
+                    limiteEfetivo, cursor, incluir);
+            // Página e coleções vêm do mesmo banco: saem juntas com o ETag de pacientes
+            Pagina<Paciente> pagina = versoesTabelas.lerVersionado(VersoesTabelas.Tabela.PACIENTES, () -> {
+                Pagina<Paciente> lida = pacienteDAO.listarPacientesPagina(cursor, limiteEfetivo);
+                incluirColecoes(lida.getItens(), incluir);
+                return lida;
+            });
+            logger.info("Pacientes retornados na página: {}", pagina.getItens().size());
+            return pagina;
+        } catch (IllegalArgumentException e) {
+            logger.error("Erro na paginação de pacientes: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erro ao listar pacientes: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao listar pacientes", e);
+        }
+    }
+
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        try {
+            logger.info("Exportando pacientes em streaming (fetch size {})", tamanhoFetchStreaming);
+            pacienteDAO.percorrerPacientes(tamanhoFetchStreaming, consumidor);
+            logger.info("Exportação de pacientes concluída");
+        } catch (UncheckedIOException e) {
+            logger.warn("Exportação de pacientes interrompida: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erro ao exportar pacientes: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao exportar pacientes", e);
+        }
+    }
+
     @Override
     public Paciente buscarPaciente(int id) {
         try {
@@ -95,7 +175,7 @@ public class SistemaClinicaService implements OperacoesSistema {
                 throw new IllegalArgumentException("ID do paciente inválido");
             }
 
-            Paciente paciente = pacienteDAO.buscarPacientePorId(String.valueOf(id));
+            Paciente paciente = cachePacientes.buscarPorId(String.valueOf(id));
 
             if (paciente == null) {
                 logger.warn("Paciente não encontrado com ID: {}", id);
@@ -120,14 +200,18 @@ public class SistemaClinicaService implements OperacoesSistema {
             logger.info("Atualizando paciente: {}", paciente.getIdPaciente());
 
             // Validações
-            validarPaciente(paciente);
+            ValidacaoCadastro.validarPaciente(paciente);
 
             // Verificar se paciente existe
-            if (pacienteDAO.buscarPacientePorId(paciente.getIdPaciente()) == null) {
+            Paciente existente = cachePacientes.buscarPorId(paciente.getIdPaciente());
+            if (existente == null) {
                 throw new IllegalArgumentException("Paciente não encontrado para atualização");
             }
 
             pacienteDAO.atualizarPaciente(paciente);
+            versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.PACIENTES);
+            cachePacientes.invalidar(existente.getIdPaciente(), existente.getCpf());
+            cachePacientes.invalidar(paciente.getIdPaciente(), paciente.getCpf());
             logger.info("Paciente {} atualizado com sucesso", paciente.getIdPaciente());
 
         } catch (IllegalArgumentException e) {
@@ -149,11 +233,14 @@ public class SistemaClinicaService implements OperacoesSistema {
             }
 
             // Verificar se paciente existe
-            if (pacienteDAO.buscarPacientePorId(String.valueOf(id)) == null) {
+            Paciente existente = cachePacientes.buscarPorId(String.valueOf(id));
+            if (existente == null) {
                 throw new IllegalArgumentException("Paciente não encontrado");
             }
 
             pacienteDAO.deletarPaciente(String.valueOf(id));
+            versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.PACIENTES);
+            cachePacientes.invalidar(existente.getIdPaciente(), existente.getCpf());
             logger.info("Paciente {} removido com sucesso", id);
 
         } catch (IllegalArgumentException e) {
@@ -173,7 +260,7 @@ public class SistemaClinicaService implements OperacoesSistema {
             }
 
             logger.info("Buscando paciente com CPF: {}", cpf);
-            Paciente paciente = pacienteDAO.buscarPorCPF(cpf);
+            Paciente paciente = cachePacientes.buscarPorCpf(cpf);
 
             if (paciente == null) {
                 throw new IllegalArgumentException("Paciente com CPF não encontrado");
@@ -198,7 +285,7 @@ public class SistemaClinicaService implements OperacoesSistema {
             logger.info("Agendando consulta para paciente: {}", consulta.getPacienteId());
 
             // Validações
-            validarConsulta(consulta);
+            ValidacaoCadastro.validarConsulta(consulta);
 
             // Verificar se data é futura
             if (!consulta.dataFutura()) {
@@ -206,11 +293,19 @@ public class SistemaClinicaService implements OperacoesSistema {
             }
 
             // Verificar se paciente existe
-            if (pacienteDAO.buscarPacientePorId(String.valueOf(consulta.getPacienteId())) == null) {
+            if (cachePacientes.buscarPorId(String.valueOf(consulta.getPacienteId())) == null) {
                 throw new IllegalArgumentException("Paciente não encontrado");
             }
 
-            consultaDAO.agendarConsulta(consulta);
+            contadoresConsulta.iniciarEscrita();
+            try {
+                inserirSemConflito(consulta);
+                contadoresConsulta.registrarNova(consulta.getStatus());
+            } finally {
+                contadoresConsulta.concluirEscrita();
+            }
+            versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.CONSULTAS);
+            agendaConsultas.registrar(consulta);
             logger.info("Consulta agendada com sucesso para o paciente: {}", consulta.getPacienteId());
 
         } catch (IllegalArgumentException e) {
@@ -222,6 +317,87 @@ public class SistemaClinicaService implements OperacoesSistema {
         }
     }
 
+    /**
+     * Valida cada consulta do lote com as mesmas regras de agendarConsulta e
+     * insere as válidas de uma vez. Itens inválidos são devolvidos como erros,
+     * com o índice que ocupavam na lista recebida.
+     *
+     * Duas consultas ativas do mesmo paciente no mesmo dia dentro do lote são recusadas aqui.
+     * O conflito com consultas já gravadas é verificado com uma consulta só, sob os mesmos
+     * locks de paciente/dia de agendarConsulta, e também vira erro do item. Se mesmo assim
+     * outra instância gravar antes e UK_CONSULTA_ATIVA recusar o lote, as consultas são
+     * inseridas uma a uma para apontar quais conflitaram.
+     */
+    public ResultadoLote<Consulta> agendarConsultasEmLote(List<Consulta> consultas) {
+        try {
+            if (consultas == null || consultas.isEmpty()) {
+                throw new IllegalArgumentException("Lote de consultas vazio");
+            }
+            if (consultas.size() > TAMANHO_MAXIMO_LOTE) {
+                throw new IllegalArgumentException(
+                        "Lote excede o máximo de " + TAMANHO_MAXIMO_LOTE + " consultas");
+            }
+
+            logger.info("Agendando lote de {} consultas", consultas.size());
+
+            ResultadoLote<Consulta> resultado = new ResultadoLote<>();
+            List<Consulta> validas = new ArrayList<>();
+            List<Integer> indicesValidas = new ArrayList<>();
+            Set<String> diasOcupados = new HashSet<>();
+
+            for (int i = 0; i < consultas.size(); i++) {
+                Consulta consulta = consultas.get(i);
+                try {
+                    ValidacaoCadastro.validarConsulta(consulta);
+
+                    if (!consulta.dataFutura()) {
+                        throw new IllegalArgumentException("Data da consulta deve ser futura");
+                    }
+
+                    if (cachePacientes.buscarPorId(String.valueOf(consulta.getPacienteId())) == null) {
+                        throw new IllegalArgumentException("Paciente não encontrado");
+                    }
+
+                    if (consulta.getStatus().ativa() &&
+                            !diasOcupados.add(consulta.getPacienteId() + "|" + consulta.getDataPrevista())) {
+                        throw new IllegalArgumentException(ERRO_DATA_OCUPADA);
+                    }
+
+                    validas.add(consulta);
+                    indicesValidas.add(i);
+                } catch (IllegalArgumentException e) {
+                    resultado.adicionarErro(i, e.getMessage());
+                }
+            }
+
+            List<Consulta> agendadas;
+            contadoresConsulta.iniciarEscrita();
+            try {
+                agendadas = inserirLoteSemConflito(validas, indicesValidas, resultado);
+                agendadas.forEach(consulta -> contadoresConsulta.registrarNova(consulta.getStatus()));
+            } finally {
+                contadoresConsulta.concluirEscrita();
+            }
+            if (!agendadas.isEmpty()) {
+                versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.CONSULTAS);
+                agendadas.forEach(agendaConsultas::registrar);
+            }
+            resultado.setProcessados(agendadas);
+            resultado.getErros().sort(Comparator.comparingInt(ErroItemLote::getIndice));
+
+            logger.info("Lote processado: {} agendadas, {} com erro",
+                    agendadas.size(), resultado.getErros().size());
+            return resultado;
+
+        } catch (IllegalArgumentException e) {
+            logger.error("Erro na validação do lote: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erro ao agendar lote de consultas: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao agendar lote de consultas", e);
+        }
+    }
+
     @Override
     public List<Consulta> listarConsultas() {
         try {
@@ -235,23 +411,61 @@ public class SistemaClinicaService implements OperacoesSistema {
         }
     }
 
+    public Pagina<Consulta> listarConsultasPaginadas(Integer limite, String cursor) {
+        try {
+            int limiteEfetivo = validarPaginaConsultas(limite, cursor);
+            logger.info("Listando consultas paginadas (limite {}, cursor {})", limiteEfetivo, cursor);
+            Pagina<Consulta> pagina = versoesTabelas.lerVersionado(VersoesTabelas.Tabela.CONSULTAS,
+                    () -> consultaDAO.listarConsultasPagina(cursor, limiteEfetivo));
+            logger.info("Consultas retornadas na página: {}", pagina.getItens().size());
+            return pagina;
+        } catch (IllegalArgumentException e) {
+            logger.error("Erro na paginação de consultas: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erro ao listar consultas: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao listar consultas", e);
+        }
+    }
+
+    public void exportarConsultas(Consumer<Consulta> consumidor) {
+        try {
+            logger.info("Exportando consultas em streaming (fetch size {})", tamanhoFetchStreaming);
+            consultaDAO.percorrerConsultas(tamanhoFetchStreaming, consumidor);
+            logger.info("Exportação de consultas concluída");
+        } catch (UncheckedIOException e) {
+            logger.warn("Exportação de consultas interrompida: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erro ao exportar consultas: {}", e.getMessage(), e);
+            throw new RuntimeException("Erro ao exportar consultas", e);
+        }
+    }
+
     @Override
     public void cancelarConsulta(int id) {
         try {
             logger.info("Cancelando consulta com ID: {}", id);
 
-            Consulta consulta = consultaDAO.buscarConsultaPorId(id);
-
-            if (consulta == null) {
-                throw new IllegalArgumentException("Consulta não encontrada");
+            // Mesmas regras de Consulta.podeCancelar, verificadas pelo próprio UPDATE
+            LocalDate dataLimite = LocalDate.now().plusDays(DIAS_ANTECEDENCIA_CANCELAMENTO - 1);
+            StatusConsulta statusAnterior;
+            contadoresConsulta.iniciarEscrita();
+            try {
+                statusAnterior = consultaDAO.cancelarConsulta(id, dataLimite);
+                if (statusAnterior != null) {
+                    contadoresConsulta.registrarMudancaStatus(statusAnterior, StatusConsulta.CANCELADA);
+                }
+            } finally {
+                contadoresConsulta.concluirEscrita();
             }
 
-            if (!consulta.podeCancelar()) {
-                throw new IllegalArgumentException(
-                        "Consulta não pode ser cancelada. Verifique o status e a data.");
+            if (statusAnterior == null) {
+                throw transicaoRecusada(id, "Consulta não pode ser cancelada. Verifique o status e a data.");
             }
 
-            consultaDAO.cancelarConsulta(id);
+            versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.CONSULTAS);
+            agendaConsultas.alterar(id, consulta -> consulta.setStatus(StatusConsulta.CANCELADA));
             logger.info("Consulta {} cancelada com sucesso", id);
 
         } catch (IllegalArgumentException e) {
@@ -267,18 +481,29 @@ public class SistemaClinicaService implements OperacoesSistema {
         try {
             logger.info("Remarcando consulta {} para data: {}", consultaId, novaData);
 
-            Consulta consulta = consultaDAO.buscarConsultaPorId(consultaId);
+            LocalDate data = converterData(novaData);
 
-            if (consulta == null) {
-                throw new IllegalArgumentException("Consulta não encontrada");
+            // O status não muda, então os contadores não são afetados
+            if (!consultaDAO.remarcarConsulta(consultaId, data)) {
+                Consulta atual = consultaDAO.buscarConsultaPorId(consultaId);
+                if (atual == null) {
+                    throw new IllegalArgumentException("Consulta não encontrada");
+                }
+                // O UPDATE só aceita status ativos; status nulo ou desconhecido também cai aqui
+                boolean ativa = atual.getStatus() != null && atual.getStatus().ativa();
+                throw new IllegalArgumentException(ativa
+                        ? ERRO_DATA_OCUPADA : "Consulta não pode ser remarcada neste status");
             }
 
-            if (!consulta.podeRemarcar()) {
-                throw new IllegalArgumentException("Consulta não pode ser remarcada neste status");
+            versoesTabelas.registrarEscrita(VersoesTabelas.Tabela.CONSULTAS);
+            if (!agendaConsultas.alterar(consultaId, consulta -> consulta.setDataPrevista(data))
+                    && agendaConsultas.cobre(data, data)) {
+                // Vinda de fora da janela para dentro dela: só aqui a consulta precisa ser lida
+                Consulta consulta = consultaDAO.buscarConsultaPorId(consultaId);
+                if (consulta != null) {
+                    agendaConsultas.registrar(consulta);
+                }
             }
-
-            consulta.setDataPrevista(novaData);
-            consultaDAO.atualizarConsulta(consulta);
             logger.info("Consulta {} remarcada com sucesso", consultaId);
 
         } catch (IllegalArgumentException e) {
@@ -317,7 +542,14 @@ public class SistemaClinicaService implements OperacoesSistema {
             }
 
             logger.info("Listando consultas do período: {} até {}", dataInicio, dataFim);
-            List<Consulta> consultas = consultaDAO.listarConsultasPorPeriodo(dataInicio, dataFim);
+            LocalDate inicio = converterData(dataInicio);
+            LocalDate fim = converterData(dataFim);
+
+            // Períodos dentro da janela da agenda em memória não vão ao banco
+            List<Consulta> consultas = agendaConsultas.listar(inicio, fim);
+            if (consultas == null) {
+                consultas = consultaDAO.listarConsultasPorPeriodo(inicio, fim);
+            }
             logger.info("Total de consultas no período: {}", consultas.size());
             return consultas;
 
@@ -339,23 +571,20 @@ public class SistemaClinicaService implements OperacoesSistema {
         try {
             logger.info("Verificando disponibilidade do paciente {} para data {}", pacienteId, data);
 
-            Paciente paciente = pacienteDAO.buscarPacientePorId(String.valueOf(pacienteId));
+            Paciente paciente = cachePacientes.buscarPorId(String.valueOf(pacienteId));
             if (paciente == null) {
                 return "Paciente não encontrado";
             }
 
-
-            List<Consulta> consultas = consultaDAO.listarConsultasPorPaciente(pacienteId);
-            for (Consulta consulta : consultas) {
-                if (consulta.getDataPrevista().equals(data) &&
-                        ("agendada".equalsIgnoreCase(consulta.getStatus()) ||
-                                "confirmada".equalsIgnoreCase(consulta.getStatus()))) {
-                    return "Paciente já possui consulta marcada nesta data";
-                }
+            if (consultaDAO.existeConsultaAtivaNaData(pacienteId, converterData(data))) {
+                return ERRO_DATA_OCUPADA;
             }
 
             return "Paciente disponível para agendamento";
 
+        } catch (IllegalArgumentException e) {
+            logger.error("Erro na verificação de disponibilidade: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Erro ao verificar disponibilidade: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao verificar disponibilidade", e);
@@ -367,19 +596,17 @@ public class SistemaClinicaService implements OperacoesSistema {
         try {
             logger.info("Gerando relatório de consultas");
 
-            List<Consulta> consultas = consultaDAO.listarConsultas();
-
-            // Contar por status usando streams
-            Map<String, Long> estatisticas = consultas.stream()
-                    .collect(Collectors.groupingBy(
-                            c -> c.getStatus() != null ? c.getStatus() : "desconhecido",
-                            Collectors.counting()
-                    ));
+            // Contadores em memória; o banco só é consultado se ainda não foram carregados
+            if (!contadoresConsulta.isCarregado() && !contadoresConsulta.reconciliar()) {
+                throw new IllegalStateException("Contadores de consultas ainda não carregados");
+            }
+            EnumMap<StatusConsulta, Long> estatisticas = contadoresConsulta.obterTotais();
 
-            long agendadas = estatisticas.getOrDefault("agendada", 0L);
-            long confirmadas = estatisticas.getOrDefault("confirmada", 0L);
-            long concluidas = estatisticas.getOrDefault("concluida", 0L);
-            long canceladas = estatisticas.getOrDefault("cancelada", 0L);
+            long total = contadoresConsulta.obterTotalGeral();
+            long agendadas = estatisticas.get(StatusConsulta.AGENDADA);
+            long confirmadas = estatisticas.get(StatusConsulta.CONFIRMADA);
+            long concluidas = estatisticas.get(StatusConsulta.CONCLUIDA);
+            long canceladas = estatisticas.get(StatusConsulta.CANCELADA);
 
             String relatorio = String.format("""
                     ╔════════════════════════════════════════╗
@@ -392,7 +619,7 @@ public class SistemaClinicaService implements OperacoesSistema {
                     ║ Consultas canceladas:       %3d        ║
                     ╚════════════════════════════════════════╝
                     """,
-                    consultas.size(), agendadas, confirmadas, concluidas, canceladas);
+                    total, agendadas, confirmadas, concluidas, canceladas);
 
             logger.info("Relatório gerado com sucesso");
             return relatorio;
@@ -406,55 +633,167 @@ public class SistemaClinicaService implements OperacoesSistema {
 
 
 
-    private void validarPaciente(Paciente paciente) {
-        if (paciente == null) {
-            throw new IllegalArgumentException("Paciente não pode ser nulo");
+    /**
+     * Insere a consulta garantindo no máximo uma consulta ativa por paciente e dia.
+     * O lock listrado evita a corrida entre a verificação e o INSERT nesta instância;
+     * entre instâncias, a restrição UK_CONSULTA_ATIVA faz o INSERT perdedor falhar.
+     */
+    private void inserirSemConflito(Consulta consulta) {
+        if (!consulta.getStatus().ativa()) {
+            consultaDAO.agendarConsulta(consulta);
+            return;
         }
 
-        if (paciente.getNome() == null || paciente.getNome().trim().isEmpty()) {
-            throw new IllegalArgumentException("Nome do paciente é obrigatório");
+        Lock trava = travasAgendamento.trava(consulta.getPacienteId(), consulta.getDataPrevista());
+        trava.lock();
+        try {
+            if (consultaDAO.existeConsultaAtivaNaData(consulta.getPacienteId(), consulta.getDataPrevista())
+                    || !consultaDAO.agendarConsulta(consulta)) {
+                throw new IllegalArgumentException(ERRO_DATA_OCUPADA);
+            }
+        } finally {
+            trava.unlock();
         }
+    }
 
-        if (paciente.getCpf() == null || paciente.getCpf().trim().isEmpty()) {
-            throw new IllegalArgumentException("CPF é obrigatório");
+    /**
+     * Versão em lote de inserirSemConflito: trava os pares (paciente, dia) das consultas
+     * ativas, descarta as que já têm consulta ativa gravada e insere o resto de uma vez.
+     * Os conflitos são registrados no resultado com o índice original do item.
+     *
+     * @return as consultas efetivamente gravadas
+     */
+    private List<Consulta> inserirLoteSemConflito(List<Consulta> validas, List<Integer> indices,
+                                                  ResultadoLote<Consulta> resultado) {
+        if (validas.isEmpty()) {
+            return validas;
         }
 
-        if (!validarFormatoCPF(paciente.getCpf())) {
-            throw new IllegalArgumentException("Formato de CPF inválido");
+        List<Consulta> ativas = validas.stream().filter(c -> c.getStatus().ativa()).toList();
+        List<Lock> travas = travasAgendamento.travasEmOrdem(ativas);
+        travas.forEach(Lock::lock);
+        try {
+            Set<String> ocupados = ativas.isEmpty() ? Set.of() : consultaDAO.listarDiasOcupados(ativas);
+
+            List<Consulta> livres = new ArrayList<>();
+            List<Integer> indicesLivres = new ArrayList<>();
+            for (int i = 0; i < validas.size(); i++) {
+                Consulta consulta = validas.get(i);
+                if (consulta.getStatus().ativa() &&
+                        ocupados.contains(consulta.getPacienteId() + "|" + consulta.getDataPrevista())) {
+                    resultado.adicionarErro(indices.get(i), ERRO_DATA_OCUPADA);
+                } else {
+                    livres.add(consulta);
+                    indicesLivres.add(indices.get(i));
+                }
+            }
+
+            if (livres.isEmpty() || consultaDAO.agendarConsultasEmLote(livres)) {
+                return livres;
+            }
+
+            // Outra instância gravou entre a verificação e o INSERT: o lote foi desfeito
+            logger.warn("Lote recusado por UK_CONSULTA_ATIVA; agendando as {} consultas uma a uma", livres.size());
+            List<Consulta> agendadas = new ArrayList<>();
+            for (int i = 0; i < livres.size(); i++) {
+                if (consultaDAO.agendarConsulta(livres.get(i))) {
+                    agendadas.add(livres.get(i));
+                } else {
+                    resultado.adicionarErro(indicesLivres.get(i), ERRO_DATA_OCUPADA);
+                }
+            }
+            return agendadas;
+        } finally {
+            for (int i = travas.size() - 1; i >= 0; i--) {
+                travas.get(i).unlock();
+            }
         }
+    }
 
+    /**
+     * Explica uma transição de status recusada pelo UPDATE condicional. A consulta só é
+     * lida neste caso, para distinguir "não encontrada" de "não permitida".
+     */
+    private IllegalArgumentException transicaoRecusada(int consultaId, String mensagemRegra) {
+        if (consultaDAO.buscarConsultaPorId(consultaId) == null) {
+            return new IllegalArgumentException("Consulta não encontrada");
+        }
+        return new IllegalArgumentException(mensagemRegra);
+    }
 
-        if (paciente.getIdade() < 0) {
-            throw new IllegalArgumentException("Idade não pode ser negativa");
+    /**
+     * Converte uma data no formato YYYY-MM-DD recebida da API
+     */
+    private LocalDate converterData(String data) {
+        try {
+            return LocalDate.parse(data);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida, use o formato YYYY-MM-DD: " + data);
         }
     }
 
     /**
-     * Valida todos os dados obrigatórios de uma consulta
+     * Preenche contatos e/ou endereços dos pacientes com consultas IN em blocos
      */
-    private void validarConsulta(Consulta consulta) {
-        if (consulta == null) {
-            throw new IllegalArgumentException("Consulta não pode ser nula");
+    private void incluirColecoes(List<Paciente> pacientes, Set<String> incluir) {
+        if (pacientes.isEmpty() || incluir.isEmpty()) {
+            return;
         }
 
-        if (!consulta.validarConsulta()) {
-            throw new IllegalArgumentException("Dados da consulta inválidos");
+        List<String> ids = pacientes.stream().map(Paciente::getIdPaciente).toList();
+
+        if (incluir.contains("contatos")) {
+            Map<String, List<Contato>> contatos = contatoDAO.listarContatosPorPacientes(ids);
+            pacientes.forEach(p -> p.setContatos(contatos.getOrDefault(p.getIdPaciente(), List.of())));
+        }
+        if (incluir.contains("enderecos")) {
+            Map<String, List<Endereco>> enderecos = enderecoDAO.listarEnderecosPorPacientes(ids);
+            pacientes.forEach(p -> p.setEnderecos(enderecos.getOrDefault(p.getIdPaciente(), List.of())));
         }
     }
 
     /**
-     * Valida o formato do CPF (validação simples)
+     * Valida os parâmetros da listagem de pacientes sem acessar o banco. Os controllers
+     * chamam antes de conferir o ETag, para que parâmetro inválido dê 400 e não 304.
+     *
+     * @return o limite efetivo da página
      */
-    private boolean validarFormatoCPF(String cpf) {
-        if (cpf == null) return false;
-        return cpf.matches("\\d{11}");
+    public int validarPaginaPacientes(Integer limite, String cursor, Set<String> incluir) {
+        int limiteEfetivo = resolverLimitePagina(limite);
+        for (String inclusao : incluir) {
+            if (!INCLUSOES_PACIENTE.contains(inclusao)) {
+                throw new IllegalArgumentException("Inclusão não suportada: " + inclusao);
+            }
+        }
+        if (cursor != null) {
+            PacienteDAO.validarCursor(cursor);
+        }
+        return limiteEfetivo;
     }
 
     /**
-     * Valida o formato do telefone
+     * Valida os parâmetros da listagem de consultas sem acessar o banco (ver validarPaginaPacientes).
+     *
+     * @return o limite efetivo da página
      */
-    private boolean validarFormatoTelefone(String telefone) {
-        if (telefone == null) return false;
-        return telefone.matches(PADRAO_TELEFONE);
+    public int validarPaginaConsultas(Integer limite, String cursor) {
+        int limiteEfetivo = resolverLimitePagina(limite);
+        if (cursor != null) {
+            ConsultaDAO.validarCursor(cursor);
+        }
+        return limiteEfetivo;
+    }
+
+    /**
+     * Aplica o limite padrão e o teto de itens por página
+     */
+    private int resolverLimitePagina(Integer limite) {
+        if (limite == null) {
+            return LIMITE_PAGINA_PADRAO;
+        }
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        return Math.min(limite, LIMITE_PAGINA_MAXIMO);
     }
 }
@@ -0,0 +1,57 @@
+package org.example.service;
+
+import org.example.model.Consulta;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fixo de locks distribuídos por (paciente, dia). Agendamentos do mesmo paciente
+ * no mesmo dia usam sempre o mesmo lock; pares diferentes raramente disputam o mesmo,
+ * e a memória não cresce com a quantidade de pacientes.
+ *
+ * Vale só dentro desta instância; entre instâncias quem garante é a restrição
+ * UK_CONSULTA_ATIVA no banco.
+ */
+final class TravasPacienteDia {
+
+    private final ReentrantLock[] travas;
+
+    TravasPacienteDia(int quantidade) {
+        travas = new ReentrantLock[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    Lock trava(int pacienteId, LocalDate dia) {
+        return travas[indice(pacienteId, dia)];
+    }
+
+    /**
+     * Travas de todos os pares (paciente, dia) das consultas, sem repetição e sempre na
+     * mesma ordem, para que lotes com pares em comum não travem um ao outro.
+     */
+    List<Lock> travasEmOrdem(List<Consulta> consultas) {
+        TreeSet<Integer> indices = new TreeSet<>();
+        for (Consulta consulta : consultas) {
+            indices.add(indice(consulta.getPacienteId(), consulta.getDataPrevista()));
+        }
+        List<Lock> resultado = new ArrayList<>(indices.size());
+        for (int indice : indices) {
+            resultado.add(travas[indice]);
+        }
+        return resultado;
+    }
+
+    private int indice(int pacienteId, LocalDate dia) {
+        int hash = 31 * pacienteId + dia.hashCode();
+        // Espalha os bits altos antes de reduzir ao tamanho do vetor
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, travas.length);
+    }
+}
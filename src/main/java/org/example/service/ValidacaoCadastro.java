@@ -0,0 +1,71 @@
+package org.example.service;
+
+import org.example.model.Consulta;
+import org.example.model.Paciente;
+
+/**
+ * Regras de validação de pacientes e consultas, sem dependência de DAOs nem de estado.
+ * Usadas pelo SistemaClinicaService, pelo ImportadorPacientes e pelos benchmarks.
+ */
+final class ValidacaoCadastro {
+
+    private static final String PADRAO_TELEFONE = "\\d{10,11}";
+
+    private ValidacaoCadastro() {
+    }
+
+    /**
+     * Valida os dados obrigatórios de um paciente.
+     */
+    static void validarPaciente(Paciente paciente) {
+        if (paciente == null) {
+            throw new IllegalArgumentException("Paciente não pode ser nulo");
+        }
+
+        if (paciente.getNome() == null || paciente.getNome().trim().isEmpty()) {
+            throw new IllegalArgumentException("Nome do paciente é obrigatório");
+        }
+
+        if (paciente.getCpf() == null || paciente.getCpf().trim().isEmpty()) {
+            throw new IllegalArgumentException("CPF é obrigatório");
+        }
+
+        if (!validarFormatoCPF(paciente.getCpf())) {
+            throw new IllegalArgumentException("Formato de CPF inválido");
+        }
+
+
+        if (paciente.getIdade() < 0) {
+            throw new IllegalArgumentException("Idade não pode ser negativa");
+        }
+    }
+
+    /**
+     * Valida todos os dados obrigatórios de uma consulta
+     */
+    static void validarConsulta(Consulta consulta) {
+        if (consulta == null) {
+            throw new IllegalArgumentException("Consulta não pode ser nula");
+        }
+
+        if (!consulta.validarConsulta()) {
+            throw new IllegalArgumentException("Dados da consulta inválidos");
+        }
+    }
+
+    /**
+     * Valida o formato do CPF (validação simples)
+     */
+    static boolean validarFormatoCPF(String cpf) {
+        if (cpf == null) return false;
+        return cpf.matches("\\d{11}");
+    }
+
+    /**
+     * Valida o formato do telefone
+     */
+    static boolean validarFormatoTelefone(String telefone) {
+        if (telefone == null) return false;
+        return telefone.matches(PADRAO_TELEFONE);
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.service;
+
+import org.example.DataSourceRoteado;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Número de versão por tabela, incrementado pelas operações de escrita do serviço.
+ * Usado para gerar os ETags das listagens e do relatório: enquanto a versão não muda,
+ * o cliente recebe 304 sem que os DAOs sejam consultados.
+ *
+ * A versão é incrementada depois da escrita no banco, e o ETag deve ser lido antes da
+ * consulta; assim uma leitura concorrente com uma escrita nunca fica marcada com a versão nova.
+ * O identificador da instância no ETag evita reaproveitar versões depois de um restart.
+ * As versões são locais a esta instância e não enxergam alterações feitas direto no banco.
+ *
+ * Com a réplica habilitada, as listagens e os carregamentos de cache passam por
+ * lerVersionado: logo depois de uma escrita a tabela é lida do primário, para que uma cópia
+ * atrasada da réplica não saia com o ETag da versão nova nem fique guardada no cache.
+ */
+@Component
+public class VersoesTabelas {
+
+    public enum Tabela {
+        PACIENTES("pacientes"),
+        CONSULTAS("consultas");
+
+        private final String nome;
+
+        Tabela(String nome) {
+            this.nome = nome;
+        }
+    }
+
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    private final EnumMap<Tabela, AtomicLong> versoes = new EnumMap<>(Tabela.class);
+    // nanoTime da última escrita por tabela
+    private final EnumMap<Tabela, AtomicLong> ultimaEscrita = new EnumMap<>(Tabela.class);
+    private final long atrasoReplicaNanos;
+
+    /**
+     * @param atrasoReplica atraso máximo esperado da réplica; o mesmo prazo da janela de
+     *                      leitura das próprias escritas (ver JanelaLeituraPropria)
+     */
+    public VersoesTabelas(@Value("${conectahc.replica.janela-leitura-propria:5s}") Duration atrasoReplica) {
+        this.atrasoReplicaNanos = atrasoReplica.toNanos();
+        long semEscritaRecente = System.nanoTime() - atrasoReplicaNanos;
+        for (Tabela tabela : Tabela.values()) {
+            versoes.put(tabela, new AtomicLong());
+            ultimaEscrita.put(tabela, new AtomicLong(semEscritaRecente));
+        }
+    }
+
+    public void registrarEscrita(Tabela tabela) {
+        // Antes da versão: quem já vê a versão nova também vê a escrita recente
+        ultimaEscrita.get(tabela).set(System.nanoTime());
+        versoes.get(tabela).incrementAndGet();
+    }
+
+    /**
+     * Executa uma leitura da tabela que sai com o ETag ou fica em cache. Até atrasoReplica
+     * depois da última escrita ela vai para o primário; passado o prazo a réplica já tem a
+     * versão atual, e os métodos @SomenteLeitura voltam a usá-la.
+     */
+    public <T> T lerVersionado(Tabela tabela, Supplier<T> leitura) {
+        if (System.nanoTime() - ultimaEscrita.get(tabela).get() < atrasoReplicaNanos) {
+            return DataSourceRoteado.noPrimario(leitura);
+        }
+        return leitura.get();
+    }
+
+    /**
+     * ETag que representa o estado atual da tabela. É fraco (W/) porque o Tomcat não
+     * comprime respostas com ETag forte, e o mesmo conteúdo sai com ou sem gzip.
+     */
+    public String etag(Tabela tabela) {
+        return "W/\"" + tabela.nome + "-" + instancia + "-" + versoes.get(tabela).get() + "\"";
+    }
+}
@@ -0,0 +1,39 @@
+package org.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de threads virtuais (somente no build com o perfil Maven java21).
+ *
+ * Com conectahc.threads-virtuais.habilitadas=true cada requisição do Tomcat, e com ela
+ * todo o trabalho bloqueante dos DAOs, roda em uma thread virtual. As respostas
+ * assíncronas (StreamingResponseBody) também passam a usar threads virtuais.
+ * A concorrência no Oracle continua limitada pelo tamanho do pool do Hikari.
+ */
+@Configuration
+@ConditionalOnProperty(name = "conectahc.threads-virtuais.habilitadas", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadsVirtuaisConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> executorTomcatThreadsVirtuais() {
+        logger.info("Threads virtuais habilitadas para as requisições do Tomcat");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
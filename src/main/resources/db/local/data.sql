@@ -0,0 +1,34 @@
+-- Massa de dados mínima do perfil "local". Para testes de carga, importe mais
+-- pacientes por POST /api/v1/pacientes/importacao e agende consultas por POST /api/v1/consultas/lote.
+
+INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, ALTURA, PESO, RG, IDADE, ESCOLARIDADE)
+VALUES ('1', 'Ana Beatriz Souza', '11122233344', DATE '1985-04-12', 'A+', '1.64', '60', '112223334', 39, 'Superior completo');
+INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, ALTURA, PESO, RG, IDADE, ESCOLARIDADE)
+VALUES ('2', 'Carlos Eduardo Lima', '22233344455', DATE '1972-09-30', 'O+', '1.78', '82', '222333445', 52, 'Ensino médio completo');
+INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF, DATA_NASCIMENTO, TP_SANGUINEO, ALTURA, PESO, RG, IDADE, ESCOLARIDADE)
+VALUES ('3', 'Mariana Costa', '33344455566', DATE '1999-01-05', 'B-', '1.60', '55', '333444556', 25, 'Superior incompleto');
+
+INSERT INTO RHSTU_CONTATO (ID_CONTATO, ID_PACIENTE, NOME, ENDERECO, NUMERO, TIPO_CTT, STATUS)
+VALUES ('1', '1', 'Ana Beatriz Souza', 'ana@example.com', 987654321, 'celular', 'ativo');
+INSERT INTO RHSTU_CONTATO (ID_CONTATO, ID_PACIENTE, NOME, ENDERECO, NUMERO, TIPO_CTT, STATUS)
+VALUES ('2', '2', 'Carlos Eduardo Lima', 'carlos@example.com', 912345678, 'celular', 'ativo');
+
+INSERT INTO RHSTU_ENDERECO (ID_ENDERECO, ID_PACIENTE, NOME_RUA, NUMERO, PONTO_REF, CEP, PAIS, ESTADO)
+VALUES ('1', '1', 'Rua Dr. Ovídio Pires de Campos', 225, 'Próximo ao HC', '05403010', 'Brasil', 'SP');
+INSERT INTO RHSTU_ENDERECO (ID_ENDERECO, ID_PACIENTE, NOME_RUA, NUMERO, PONTO_REF, CEP, PAIS, ESTADO)
+VALUES ('2', '2', 'Avenida Paulista', 1000, NULL, '01310100', 'Brasil', 'SP');
+
+INSERT INTO RHSTU_PLANO_SAUDE (ID_PLANO, NOME_FANTASIA, RAZAO_SOCIAL, STATUS, CNPJ)
+VALUES ('1', 'Plano Saúde Local', 'Plano Saúde Local S.A.', 'ativo', 123456789);
+
+INSERT INTO RHSTU_PACIENTE_PLANO_SAUDE (PACIENTE_ID_PACIENTE, PLANO_SAUDE_ID_PLANO, DATA_INICIO, DATA_FIM, DESCRICAO)
+VALUES ('1', '1', DATE '2023-01-01', NULL, 'Plano empresarial');
+
+INSERT INTO consultas (paciente_id, data_consulta, status, motivo, observacoes)
+VALUES (1, CURRENT_DATE + 7, 'agendada', 'Consulta de rotina', NULL);
+INSERT INTO consultas (paciente_id, data_consulta, status, motivo, observacoes)
+VALUES (2, CURRENT_DATE + 14, 'confirmada', 'Retorno cardiologia', 'Trazer exames');
+INSERT INTO consultas (paciente_id, data_consulta, status, motivo, observacoes)
+VALUES (3, CURRENT_DATE - 10, 'concluida', 'Avaliação inicial', NULL);
+INSERT INTO consultas (paciente_id, data_consulta, status, motivo, observacoes)
+VALUES (1, CURRENT_DATE - 3, 'cancelada', 'Exame de sangue', 'Cancelada pelo paciente');
@@ -0,0 +1,77 @@
+-- Esquema do perfil "local" (H2, MODE=Oracle), com as tabelas e colunas usadas pelos DAOs
+
+CREATE TABLE RHSTU_PACIENTE (
+    ID_PACIENTE     VARCHAR2(20)  PRIMARY KEY,
+    NOME            VARCHAR2(100) NOT NULL,
+    CPF             VARCHAR2(11)  NOT NULL,
+    DATA_NASCIMENTO DATE,
+    TP_SANGUINEO    VARCHAR2(3),
+    ALTURA          VARCHAR2(10),
+    PESO            VARCHAR2(10),
+    RG              VARCHAR2(20),
+    IDADE           NUMBER(3),
+    ESCOLARIDADE    VARCHAR2(50),
+    CONSTRAINT UK_PACIENTE_CPF UNIQUE (CPF)
+);
+
+CREATE INDEX IX_PACIENTE_NOME ON RHSTU_PACIENTE (NOME, ID_PACIENTE);
+
+CREATE TABLE consultas (
+    id            NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    paciente_id   NUMBER        NOT NULL,
+    data_consulta DATE          NOT NULL,
+    status        VARCHAR2(20),
+    motivo        VARCHAR2(255),
+    observacoes   VARCHAR2(1000),
+    -- Preenchidas só para consultas ativas: no máximo uma ativa por paciente e dia
+    paciente_ativo NUMBER GENERATED ALWAYS AS
+        (CASE WHEN status IN ('agendada', 'confirmada') THEN paciente_id END),
+    data_ativa     DATE GENERATED ALWAYS AS
+        (CASE WHEN status IN ('agendada', 'confirmada') THEN data_consulta END),
+    CONSTRAINT UK_CONSULTA_ATIVA UNIQUE (paciente_ativo, data_ativa)
+);
+
+CREATE INDEX IX_CONSULTAS_DATA ON consultas (data_consulta, id);
+CREATE INDEX IX_CONSULTAS_PACIENTE ON consultas (paciente_id, data_consulta);
+
+CREATE TABLE RHSTU_CONTATO (
+    ID_CONTATO  VARCHAR2(20)  PRIMARY KEY,
+    ID_PACIENTE VARCHAR2(20)  NOT NULL,
+    NOME        VARCHAR2(100),
+    ENDERECO    VARCHAR2(150),
+    NUMERO      NUMBER(10),
+    TIPO_CTT    VARCHAR2(20),
+    STATUS      VARCHAR2(20)
+);
+
+CREATE INDEX IX_CONTATO_PACIENTE ON RHSTU_CONTATO (ID_PACIENTE);
+
+CREATE TABLE RHSTU_ENDERECO (
+    ID_ENDERECO VARCHAR2(20)  PRIMARY KEY,
+    ID_PACIENTE VARCHAR2(20)  NOT NULL,
+    NOME_RUA    VARCHAR2(150),
+    NUMERO      NUMBER(10),
+    PONTO_REF   VARCHAR2(150),
+    CEP         VARCHAR2(9),
+    PAIS        VARCHAR2(50),
+    ESTADO      VARCHAR2(50)
+);
+
+CREATE INDEX IX_ENDERECO_PACIENTE ON RHSTU_ENDERECO (ID_PACIENTE);
+
+CREATE TABLE RHSTU_PLANO_SAUDE (
+    ID_PLANO      VARCHAR2(20)  PRIMARY KEY,
+    NOME_FANTASIA VARCHAR2(100),
+    RAZAO_SOCIAL  VARCHAR2(150),
+    STATUS        VARCHAR2(20),
+    CNPJ          NUMBER(10)
+);
+
+CREATE TABLE RHSTU_PACIENTE_PLANO_SAUDE (
+    PACIENTE_ID_PACIENTE VARCHAR2(20) NOT NULL,
+    PLANO_SAUDE_ID_PLANO VARCHAR2(20) NOT NULL,
+    DATA_INICIO          DATE,
+    DATA_FIM             DATE,
+    DESCRICAO            VARCHAR2(255),
+    PRIMARY KEY (PACIENTE_ID_PACIENTE, PLANO_SAUDE_ID_PLANO)
+);
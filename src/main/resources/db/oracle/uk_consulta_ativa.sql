@@ -0,0 +1,16 @@
+-- No máximo uma consulta ativa (agendada/confirmada) por paciente e dia, exigido por
+-- ConsultaDAO.agendarConsulta quando duas instâncias agendam ao mesmo tempo.
+-- As colunas virtuais ficam nulas para consultas inativas, e o índice único do Oracle
+-- ignora linhas com todas as colunas nulas. Rodar uma vez; falha se já houver conflitos:
+--   SELECT paciente_id, data_consulta, COUNT(*) FROM consultas
+--   WHERE status IN ('agendada', 'confirmada')
+--   GROUP BY paciente_id, data_consulta HAVING COUNT(*) > 1;
+
+ALTER TABLE consultas ADD (
+    paciente_ativo NUMBER GENERATED ALWAYS AS
+        (CASE WHEN status IN ('agendada', 'confirmada') THEN paciente_id END) VIRTUAL,
+    data_ativa     DATE GENERATED ALWAYS AS
+        (CASE WHEN status IN ('agendada', 'confirmada') THEN data_consulta END) VIRTUAL
+);
+
+ALTER TABLE consultas ADD CONSTRAINT UK_CONSULTA_ATIVA UNIQUE (paciente_ativo, data_ativa);
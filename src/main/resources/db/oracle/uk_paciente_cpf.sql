@@ -0,0 +1,6 @@
+-- Restrição única de CPF exigida por PacienteDAO.criarPaciente, que deixa de consultar
+-- o CPF antes de inserir. Rodar uma vez no Oracle; falha se já houver CPFs duplicados,
+-- que precisam ser resolvidos antes:
+--   SELECT CPF, COUNT(*) FROM RHSTU_PACIENTE GROUP BY CPF HAVING COUNT(*) > 1;
+
+ALTER TABLE RHSTU_PACIENTE ADD CONSTRAINT UK_PACIENTE_CPF UNIQUE (CPF);
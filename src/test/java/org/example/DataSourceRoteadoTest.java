@@ -0,0 +1,304 @@
+package org.example;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dao.SomenteLeitura;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Roteamento entre dois H2 em memória, cada um com uma tabela "origem" que diz qual banco respondeu.
+ */
+class DataSourceRoteadoTest {
+
+    private static final Duration RECUPERACAO = Duration.ofMillis(300);
+
+    private BancoControlado primario;
+    private BancoControlado replica;
+    private DataSourceRoteado roteado;
+    private OrigemDAO dao;
+
+    @BeforeEach
+    void preparar() throws SQLException {
+        primario = new BancoControlado(criarBanco("primario"));
+        replica = new BancoControlado(criarBanco("replica"));
+        roteado = new DataSourceRoteado(primario, replica, RECUPERACAO.toNanos());
+
+        dao = criarDao(5);
+    }
+
+    @Test
+    void leituraMarcadaVaiParaReplica() {
+        assertThat(dao.lerOrigem()).isEqualTo("replica");
+    }
+
+    @Test
+    void metodoSemAnotacaoVaiParaPrimario() {
+        assertThat(dao.lerOrigemParaDecidirEscrita()).isEqualTo("primario");
+    }
+
+    @Test
+    void conexaoForaDeMetodoDeLeituraVaiParaPrimario() throws SQLException {
+        assertThat(origem(roteado)).isEqualTo("primario");
+    }
+
+    @Test
+    void primarioObrigatorioVenceAAnotacao() {
+        Boolean anterior = DataSourceRoteado.exigirPrimario();
+        try {
+            assertThat(dao.lerOrigem()).isEqualTo("primario");
+        } finally {
+            DataSourceRoteado.restaurarPrimarioObrigatorio(anterior);
+        }
+        assertThat(dao.lerOrigem()).isEqualTo("replica");
+    }
+
+    @Test
+    void clienteLeAsPropriasEscritasNoPrimarioDuranteAJanela() throws Exception {
+        JanelaLeituraPropria janela = new JanelaLeituraPropria(Duration.ofMillis(300));
+
+        assertThat(requisicao(janela, "GET", "10.0.0.1")).isEqualTo("replica");
+        assertThat(requisicao(janela, "POST", "10.0.0.1")).isEqualTo("primario");
+        assertThat(requisicao(janela, "GET", "10.0.0.1")).isEqualTo("primario");
+        // Outros clientes não são afetados pela escrita
+        assertThat(requisicao(janela, "GET", "10.0.0.2")).isEqualTo("replica");
+
+        Thread.sleep(400);
+        assertThat(requisicao(janela, "GET", "10.0.0.1")).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaForaCaiParaOPrimarioETestaDeNovoDepoisDoPrazo() throws Exception {
+        replica.fora = true;
+
+        assertThat(dao.lerOrigem()).isEqualTo("primario");
+        assertThat(replica.tentativas.get()).isEqualTo(1);
+
+        // Dentro do prazo de recuperação a réplica nem é tentada
+        assertThat(dao.lerOrigem()).isEqualTo("primario");
+        assertThat(dao.lerOrigem()).isEqualTo("primario");
+        assertThat(replica.tentativas.get()).isEqualTo(1);
+
+        replica.fora = false;
+        Thread.sleep(RECUPERACAO.toMillis() + 100);
+
+        assertThat(dao.lerOrigem()).isEqualTo("replica");
+        assertThat(dao.lerOrigem()).isEqualTo("replica");
+        assertThat(replica.tentativas.get()).isEqualTo(3);
+    }
+
+    @Test
+    void sondaQueFalhaMantemAReplicaFora() throws Exception {
+        replica.fora = true;
+        assertThat(dao.lerOrigem()).isEqualTo("primario");
+
+        Thread.sleep(RECUPERACAO.toMillis() + 100);
+        assertThat(dao.lerOrigem()).isEqualTo("primario");
+        assertThat(replica.tentativas.get()).isEqualTo(2);
+
+        assertThat(dao.lerOrigem()).isEqualTo("primario");
+        assertThat(replica.tentativas.get()).isEqualTo(2);
+    }
+
+    @Test
+    void timeoutNaReplicaNaoAbreOCircuitoDoPrimario() {
+        // Com o disjuntor abrindo na primeira falha, qualquer falha contada nele apareceria
+        OrigemDAO daoSensivel = criarDao(1);
+        replica.lenta = true;
+
+        assertThatThrownBy(daoSensivel::lerOrigem).hasRootCauseInstanceOf(SQLTimeoutException.class);
+
+        assertThat(daoSensivel.lerOrigemParaDecidirEscrita()).isEqualTo("primario");
+        // A réplica saiu do ar pelo prazo de recuperação, como numa falha de conexão
+        assertThat(daoSensivel.lerOrigem()).isEqualTo("primario");
+        assertThat(replica.tentativas.get()).isEqualTo(1);
+    }
+
+    @Test
+    void circuitoAbertoNoPrimarioNaoRecusaLeituraDaReplica() {
+        OrigemDAO daoSensivel = criarDao(1);
+        primario.fora = true;
+        assertThatThrownBy(daoSensivel::lerOrigemParaDecidirEscrita)
+                .hasRootCauseInstanceOf(SQLTransientConnectionException.class);
+        assertThatThrownBy(daoSensivel::lerOrigemParaDecidirEscrita)
+                .isInstanceOf(BancoIndisponivelException.class);
+        assertThat(primario.tentativas.get()).isEqualTo(1);
+
+        assertThat(daoSensivel.lerOrigem()).isEqualTo("replica");
+
+        // Sem a réplica a leitura cairia no primário, e aí o disjuntor recusa
+        replica.fora = true;
+        assertThatThrownBy(daoSensivel::lerOrigem).isInstanceOf(BancoIndisponivelException.class);
+        assertThat(primario.tentativas.get()).isEqualTo(1);
+    }
+
+    @Test
+    void tarefaEmOutraThreadLevaORoteamentoDaRequisicao() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> semRoteamento;
+            CompletableFuture<String> comRoteamento;
+            Boolean anterior = DataSourceRoteado.exigirPrimario();
+            try {
+                semRoteamento = executor.submit(() -> dao.lerOrigem());
+                comRoteamento = CompletableFuture.supplyAsync(
+                        DataSourceRoteado.comRoteamento(() -> dao.lerOrigem()), executor);
+            } finally {
+                DataSourceRoteado.restaurarPrimarioObrigatorio(anterior);
+            }
+
+            assertThat(semRoteamento.get()).isEqualTo("replica");
+            assertThat(comRoteamento.get()).isEqualTo("primario");
+            // A thread do executor volta ao roteamento que tinha
+            assertThat(executor.submit(() -> dao.lerOrigem()).get()).isEqualTo("replica");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private OrigemDAO criarDao(int falhasParaAbrir) {
+        ConexaoBD conexaoBD = new ConexaoBD(roteado, new SimpleMeterRegistry(),
+                Duration.ofSeconds(5), falhasParaAbrir, Duration.ofSeconds(10));
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(new OrigemDAO(conexaoBD));
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAspect(AspectoSomenteLeitura.class);
+        return fabrica.getProxy();
+    }
+
+    private String requisicao(JanelaLeituraPropria janela, String metodo, String cliente) throws Exception {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest(metodo, "/api/v1/consultas");
+        requisicao.setRemoteAddr(cliente);
+        AtomicReference<String> lida = new AtomicReference<>();
+        janela.doFilter(requisicao, new MockHttpServletResponse(),
+                new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+                    @Override
+                    protected void service(jakarta.servlet.http.HttpServletRequest req,
+                                           jakarta.servlet.http.HttpServletResponse resp) {
+                        lida.set(dao.lerOrigem());
+                    }
+                }));
+        return lida.get();
+    }
+
+    private static DataSource criarBanco(String nome) throws SQLException {
+        JdbcDataSource banco = new JdbcDataSource();
+        banco.setURL("jdbc:h2:mem:" + nome + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        try (Connection conn = banco.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE origem (nome VARCHAR(20))");
+            stmt.execute("INSERT INTO origem VALUES ('" + nome + "')");
+        }
+        return banco;
+    }
+
+    private static String origem(DataSource dataSource) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return origem(conn);
+        }
+    }
+
+    private static String origem(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT nome FROM origem")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    /**
+     * DAO mínimo que abre conexões pelo ConexaoBD, como os DAOs da aplicação.
+     */
+    static class OrigemDAO {
+
+        private final ConexaoBD conexaoBD;
+
+        OrigemDAO(ConexaoBD conexaoBD) {
+            this.conexaoBD = conexaoBD;
+        }
+
+        @SomenteLeitura
+        public String lerOrigem() {
+            return ler();
+        }
+
+        public String lerOrigemParaDecidirEscrita() {
+            return ler();
+        }
+
+        private String ler() {
+            try (Connection conn = conexaoBD.getConnection()) {
+                return origem(conn);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Banco que pode ser "derrubado" ou ficar lento (todo execute* estoura o timeout)
+     * e conta quantas conexões foram pedidas a ele.
+     */
+    private static final class BancoControlado extends DelegatingDataSource {
+
+        private final AtomicInteger tentativas = new AtomicInteger();
+        private volatile boolean fora;
+        private volatile boolean lenta;
+
+        BancoControlado(DataSource alvo) {
+            super(alvo);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            tentativas.incrementAndGet();
+            if (fora) {
+                throw new SQLTransientConnectionException("banco fora do ar");
+            }
+            Connection conn = super.getConnection();
+            return lenta ? comTimeout(conn) : conn;
+        }
+
+        private static Connection comTimeout(Connection conn) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, metodo, args) -> {
+                        Object retorno = metodo.invoke(conn, args);
+                        if (retorno instanceof Statement) {
+                            return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                                    new Class<?>[]{metodo.getReturnType()},
+                                    (proxyStmt, metodoStmt, argsStmt) -> {
+                                        if (metodoStmt.getName().startsWith("execute")) {
+                                            throw new SQLTimeoutException("banco lento");
+                                        }
+                                        return metodoStmt.invoke(retorno, argsStmt);
+                                    });
+                        }
+                        return retorno;
+                    });
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.AspectoSomenteLeitura;
+import org.example.ConexaoBD;
+import org.example.DataSourceRoteado;
+import org.example.dao.PacienteDAO;
+import org.example.model.Paciente;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache de pacientes com a réplica habilitada e atrasada: dois H2 com o esquema do perfil
+ * local, e o primário já com uma alteração e um cadastro que a réplica ainda não recebeu.
+ * Sem escrita registrada em VersoesTabelas a leitura vai para a réplica; logo depois de uma,
+ * para o primário.
+ * Acertos, faltas e invalidações usam um "banco" em memória que conta as leituras.
+ */
+class CachePacientesTest {
+
+    private PacienteDAO pacienteDAO;
+    private VersoesTabelas versoes;
+    private CachePacientes cache;
+
+    @BeforeEach
+    void preparar() throws SQLException {
+        DataSource primario = criarBanco("primario");
+        DataSource replica = criarBanco("replica");
+        executar(primario,
+                "UPDATE RHSTU_PACIENTE SET NOME = 'Nome Novo' WHERE ID_PACIENTE = '1'",
+                "INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF) VALUES ('2', 'Recém Cadastrado', '00000000002')");
+
+        DataSourceRoteado roteado = new DataSourceRoteado(primario, replica, Duration.ofSeconds(30).toNanos());
+        ConexaoBD conexaoBD = new ConexaoBD(roteado, new SimpleMeterRegistry(),
+                Duration.ofSeconds(5), 5, Duration.ofSeconds(10));
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(new PacienteDAO(conexaoBD));
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAspect(AspectoSomenteLeitura.class);
+        pacienteDAO = fabrica.getProxy();
+
+        versoes = new VersoesTabelas(Duration.ofSeconds(5));
+        cache = new CachePacientes(pacienteDAO, versoes, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void leituraAnotadaVaiParaAReplicaAtrasada() {
+        assertThat(pacienteDAO.listarTodosPacientes())
+                .extracting(Paciente::getNome)
+                .containsExactly("Nome Antigo");
+    }
+
+    @Test
+    void semEscritaRecenteOCacheCarregaDaReplica() {
+        assertThat(cache.buscarPorId("1").getNome()).isEqualTo("Nome Antigo");
+        assertThat(cache.buscarPorCpf("00000000002")).isNull();
+    }
+
+    @Test
+    void logoDepoisDeUmaEscritaOCacheCarregaDoPrimario() {
+        versoes.registrarEscrita(VersoesTabelas.Tabela.PACIENTES);
+
+        assertThat(cache.buscarPorId("1").getNome()).isEqualTo("Nome Novo");
+        assertThat(cache.buscarPorCpf("00000000002")).isNotNull();
+        // O que ficou guardado também é a versão do primário
+        assertThat(cache.buscarPorCpf("00000000001").getNome()).isEqualTo("Nome Novo");
+    }
+
+    @Test
+    void paginaComEtagSoLeDaReplicaForaDoPrazoDaUltimaEscrita() {
+        assertThat(versoes.lerVersionado(VersoesTabelas.Tabela.PACIENTES,
+                () -> pacienteDAO.listarPacientesPagina(null, 10)).getItens())
+                .extracting(Paciente::getNome)
+                .containsExactly("Nome Antigo");
+
+        versoes.registrarEscrita(VersoesTabelas.Tabela.PACIENTES);
+
+        assertThat(versoes.lerVersionado(VersoesTabelas.Tabela.PACIENTES,
+                () -> pacienteDAO.listarPacientesPagina(null, 10)).getItens())
+                .extracting(Paciente::getNome)
+                .containsExactly("Nome Novo", "Recém Cadastrado");
+    }
+
+    @Test
+    void segundaBuscaNaoVaiAoBanco() {
+        BancoFalso banco = new BancoFalso();
+        banco.cadastrar("1", "Maria", "00000000001");
+        CachePacientes cache = new CachePacientes(banco, new VersoesTabelas(Duration.ZERO), new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+        cache.buscarPorId("1");
+        cache.buscarPorId("1");
+        cache.buscarPorCpf("00000000001");
+
+        assertThat(banco.leiturasPorId.get()).isEqualTo(1);
+        assertThat(banco.leiturasPorCpf.get()).isZero();
+    }
+
+    @Test
+    void pacienteNaoEncontradoNaoFicaNoCache() {
+        BancoFalso banco = new BancoFalso();
+        CachePacientes cache = new CachePacientes(banco, new VersoesTabelas(Duration.ZERO), new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+        assertThat(cache.buscarPorId("1")).isNull();
+        assertThat(cache.buscarPorCpf("00000000001")).isNull();
+        banco.cadastrar("1", "Maria", "00000000001");
+
+        assertThat(cache.buscarPorId("1")).isNotNull();
+        assertThat(cache.buscarPorCpf("00000000001")).isNotNull();
+        assertThat(banco.leiturasPorId.get()).isEqualTo(2);
+        assertThat(banco.leiturasPorCpf.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidacaoRecarregaDoBanco() {
+        BancoFalso banco = new BancoFalso();
+        banco.cadastrar("1", "Maria", "00000000001");
+        CachePacientes cache = new CachePacientes(banco, new VersoesTabelas(Duration.ZERO), new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        cache.buscarPorCpf("00000000001");
+        cache.buscarPorId("1");
+
+        banco.cadastrar("1", "Maria Souza", "00000000001");
+        cache.invalidar("1", "00000000001");
+
+        assertThat(cache.buscarPorId("1").getNome()).isEqualTo("Maria Souza");
+        assertThat(cache.buscarPorCpf("00000000001").getNome()).isEqualTo("Maria Souza");
+    }
+
+    @Test
+    void cpfAntigoNaoDevolveOPacienteDepoisDaTroca() {
+        BancoFalso banco = new BancoFalso();
+        banco.cadastrar("1", "Maria", "00000000001");
+        CachePacientes cache = new CachePacientes(banco, new VersoesTabelas(Duration.ZERO), new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        cache.buscarPorId("1");
+
+        // Invalidação só pelo CPF novo: o índice ainda aponta o CPF antigo para o ID 1
+        banco.pacientes.remove("00000000001");
+        banco.cadastrar("1", "Maria", "00000000009");
+        cache.invalidar("1", "00000000009");
+
+        assertThat(cache.buscarPorCpf("00000000001")).isNull();
+        assertThat(cache.buscarPorCpf("00000000009").getIdPaciente()).isEqualTo("1");
+    }
+
+    private static DataSource criarBanco(String nome) throws SQLException {
+        JdbcDataSource banco = new JdbcDataSource();
+        banco.setURL("jdbc:h2:mem:" + nome + System.nanoTime() + ";MODE=Oracle;DB_CLOSE_DELAY=-1");
+        ResourceDatabasePopulator esquema = new ResourceDatabasePopulator(new ClassPathResource("db/local/schema.sql"));
+        esquema.setSqlScriptEncoding("UTF-8");
+        esquema.execute(banco);
+        executar(banco, "INSERT INTO RHSTU_PACIENTE (ID_PACIENTE, NOME, CPF) VALUES ('1', 'Nome Antigo', '00000000001')");
+        return banco;
+    }
+
+    private static void executar(DataSource banco, String... comandos) throws SQLException {
+        try (Connection conn = banco.getConnection();
+             Statement stmt = conn.createStatement()) {
+            for (String comando : comandos) {
+                stmt.execute(comando);
+            }
+        }
+    }
+
+    private static final class BancoFalso extends PacienteDAO {
+
+        // Por CPF; o ID é procurado varrendo os valores
+        private final Map<String, Paciente> pacientes = new ConcurrentHashMap<>();
+        private final AtomicInteger leiturasPorId = new AtomicInteger();
+        private final AtomicInteger leiturasPorCpf = new AtomicInteger();
+
+        BancoFalso() {
+            super(null);
+        }
+
+        void cadastrar(String idPaciente, String nome, String cpf) {
+            Paciente paciente = new Paciente();
+            paciente.setIdPaciente(idPaciente);
+            paciente.setNome(nome);
+            paciente.setCpf(cpf);
+            pacientes.put(cpf, paciente);
+        }
+
+        @Override
+        public Paciente buscarPacientePorId(String idPaciente) {
+            leiturasPorId.incrementAndGet();
+            return pacientes.values().stream()
+                    .filter(paciente -> paciente.getIdPaciente().equals(idPaciente))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        @Override
+        public Paciente buscarPorCPF(String cpf) {
+            leiturasPorCpf.incrementAndGet();
+            return pacientes.get(cpf);
+        }
+    }
+}
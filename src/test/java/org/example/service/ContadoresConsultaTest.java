@@ -0,0 +1,127 @@
+package org.example.service;
+
+import org.example.dao.ConsultaDAO;
+import org.example.model.StatusConsulta;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reconciliação concorrente com escritas, sobre um "banco" em memória que só conta
+ * consultas agendadas e canceladas.
+ */
+class ContadoresConsultaTest {
+
+    private final BancoFalso banco = new BancoFalso();
+    private final ContadoresConsulta contadores = new ContadoresConsulta(banco, new VersoesTabelas(Duration.ofSeconds(5)));
+
+    @Test
+    void reconciliacoesSimultaneasNaoSomamODesvioDuasVezes() throws Exception {
+        banco.agendadas.set(10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                return contadores.reconciliar();
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        assertThat(contadores.obterTotais().get(StatusConsulta.AGENDADA)).isEqualTo(10);
+    }
+
+    @Test
+    void escritasDuranteAReconciliacaoNaoSaoContadasDuasVezes() throws Exception {
+        contadores.reconciliar();
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int escritor = 0; escritor < 4; escritor++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    agendar();
+                    if (i % 3 == 0) {
+                        cancelar();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int reconciliador = 0; reconciliador < 2; reconciliador++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    contadores.reconciliar();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        assertThat(contadores.obterTotais().get(StatusConsulta.AGENDADA)).isEqualTo(banco.agendadas.get());
+        assertThat(contadores.obterTotais().get(StatusConsulta.CANCELADA)).isEqualTo(banco.canceladas.get());
+    }
+
+    // Mesma sequência do SistemaClinicaService: grava, registra, conclui
+    private void agendar() {
+        contadores.iniciarEscrita();
+        try {
+            banco.agendadas.incrementAndGet();
+            contadores.registrarNova(StatusConsulta.AGENDADA);
+        } finally {
+            contadores.concluirEscrita();
+        }
+    }
+
+    private void cancelar() {
+        contadores.iniciarEscrita();
+        try {
+            synchronized (banco) {
+                banco.agendadas.decrementAndGet();
+                banco.canceladas.incrementAndGet();
+            }
+            contadores.registrarMudancaStatus(StatusConsulta.AGENDADA, StatusConsulta.CANCELADA);
+        } finally {
+            contadores.concluirEscrita();
+        }
+    }
+
+    private static final class BancoFalso extends ConsultaDAO {
+
+        private final AtomicLong agendadas = new AtomicLong();
+        private final AtomicLong canceladas = new AtomicLong();
+
+        BancoFalso() {
+            super(null);
+        }
+
+        @Override
+        public Map<String, Long> contarConsultasAgrupadasPorStatus() {
+            synchronized (this) {
+                Map<String, Long> totais = Map.of("agendada", agendadas.get(), "cancelada", canceladas.get());
+                // Alarga a janela entre o SELECT e a aplicação dos totais
+                Thread.yield();
+                return totais;
+            }
+        }
+    }
+}